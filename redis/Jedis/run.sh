@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# 启动本地redis-server（没有运行时）后执行测试，用法：./run.sh [mvn参数...]
+# 6379给JedisTest使用，6380-6382是ShardedJedisClientTest的三个分片
+set -e
+cd "$(dirname "$0")"
+
+PORTS=${REDIS_PORTS:-"6379 6380 6381 6382"}
+STARTED=()
+cleanup() {
+    for port in "${STARTED[@]}"; do
+        redis-cli -p "$port" shutdown nosave >/dev/null 2>&1 || true
+    done
+}
+trap cleanup EXIT
+
+for port in $PORTS; do
+    if ! redis-cli -p "$port" ping >/dev/null 2>&1; then
+        redis-server --port "$port" --save "" --appendonly no --daemonize yes
+        STARTED+=("$port")
+        until redis-cli -p "$port" ping >/dev/null 2>&1; do sleep 0.1; done
+    fi
+done
+
+mvn -B test "$@"
@@ -0,0 +1,303 @@
+package com.zyk.redis.jedis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 异步自动flush的pipeline：任意线程提交命令，后台写线程批量写入，每条命令返回一个CompletableFuture
+ * <p>
+ * 命令先放进有界无锁队列，每个写线程持有一个连接，攒够redis.async.flushSize条或者第一条等待超过
+ * redis.async.flushMicros就sync一次。队列满时提交线程等待，超过redis.async.offerTimeoutMillis抛出
+ * RejectedExecutionException。future在写线程上完成，后续处理耗时的话用thenXxxAsync换到其他线程。
+ * <p>
+ * 队列空时写线程的休眠时长按指数退避增长，最长redis.async.maxIdleMicros；休眠超过flush间隔的写线程
+ * 由下一次提交唤醒，空闲时不占CPU，来了命令也不用等满一个休眠周期。
+ * <p>
+ * 多个写线程之间不保证顺序，同一个key需要严格顺序时writers配置为1。
+ */
+public class AsyncPipeline implements Closeable {
+
+    private final JedisPool pool;
+    private final BoundedMpmcQueue<Command<?>> queue;
+    private final int flushSize;
+    private final long flushNanos;
+    private final long offerTimeoutNanos;
+    private final long idleNanos;
+    private final long maxIdleNanos;
+    private final List<Thread> writers = new ArrayList<>();
+
+    /**
+     * 休眠超过flush间隔的写线程数，大于0时提交命令后唤醒写线程
+     */
+    private final AtomicInteger sleeping = new AtomicInteger();
+
+    /**
+     * 正在提交的线程数，关闭时等它们都放进队列后写线程才退出
+     */
+    private final AtomicInteger producers = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * 连接和参数都来自redis.properties
+     */
+    public AsyncPipeline() {
+        this(JedisUtil.getPool(), JedisUtil.loadConfig());
+    }
+
+    public AsyncPipeline(JedisPool pool, Properties config) {
+        this.pool = pool;
+        this.queue = new BoundedMpmcQueue<>(Integer.parseInt(config.getProperty("redis.async.queueCapacity", "65536")));
+        this.flushSize = Integer.parseInt(config.getProperty("redis.async.flushSize", "256"));
+        this.flushNanos = TimeUnit.MICROSECONDS.toNanos(
+                Long.parseLong(config.getProperty("redis.async.flushMicros", "200")));
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(config.getProperty("redis.async.offerTimeoutMillis", "1000")));
+        // 队列空时的休眠间隔，不超过flush间隔
+        this.idleNanos = Math.max(1, Math.min(flushNanos, TimeUnit.MICROSECONDS.toNanos(50)));
+        this.maxIdleNanos = Math.max(idleNanos, TimeUnit.MICROSECONDS.toNanos(
+                Long.parseLong(config.getProperty("redis.async.maxIdleMicros", "10000"))));
+        int count = Integer.parseInt(config.getProperty("redis.async.writers", "2"));
+        for (int i = 0; i < count; i++) {
+            Thread writer = new Thread(this::runWriter, "jedis-async-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * 提交一条命令，command在写线程上调用，只能往pipeline里加一条命令
+     */
+    public <T> CompletableFuture<T> submit(Function<Pipeline, Response<T>> command) {
+        Command<T> cmd = new Command<>(command);
+        producers.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("AsyncPipeline已关闭");
+            }
+            if (!queue.offer(cmd)) {
+                awaitSpace(cmd);
+            }
+        } finally {
+            producers.decrementAndGet();
+        }
+        if (sleeping.get() > 0) {
+            wakeWriters();
+        }
+        return cmd.future;
+    }
+
+    public CompletableFuture<String> get(String key) {
+        return submit(pipeline -> pipeline.get(key));
+    }
+
+    public CompletableFuture<String> set(String key, String value) {
+        return submit(pipeline -> pipeline.set(key, value));
+    }
+
+    public CompletableFuture<String> setex(String key, long seconds, String value) {
+        return submit(pipeline -> pipeline.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<Long> del(String key) {
+        return submit(pipeline -> pipeline.del(key));
+    }
+
+    public CompletableFuture<Long> incrBy(String key, long increment) {
+        return submit(pipeline -> pipeline.incrBy(key, increment));
+    }
+
+    public CompletableFuture<Long> hset(String key, Map<String, String> hash) {
+        return submit(pipeline -> pipeline.hset(key, hash));
+    }
+
+    public CompletableFuture<Long> sadd(String key, String... members) {
+        return submit(pipeline -> pipeline.sadd(key, members));
+    }
+
+    /**
+     * 队列里的近似命令数
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * 不再接收新命令，等已提交的命令全部写完
+     */
+    @Override
+    public void close() {
+        closed = true;
+        wakeWriters();
+        boolean interrupted = false;
+        for (Thread writer : writers) {
+            while (writer.isAlive()) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 背压：队列满时短暂休眠重试，写线程取走命令后就有空位
+     */
+    private void awaitSpace(Command<?> cmd) {
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        do {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new RejectedExecutionException("AsyncPipeline队列已满，容量" + queue.capacity());
+            }
+            LockSupport.parkNanos(idleNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new JedisException("等待队列空位时被中断");
+            }
+        } while (!queue.offer(cmd));
+    }
+
+    private void wakeWriters() {
+        for (Thread writer : writers) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        List<Command<?>> batch = new ArrayList<>(flushSize);
+        IdleBackoff backoff = new IdleBackoff(idleNanos, maxIdleNanos);
+        Jedis jedis = null;
+        long firstNanos = 0;
+        try {
+            while (true) {
+                Command<?> cmd = queue.poll();
+                if (cmd != null) {
+                    backoff.reset();
+                    if (batch.isEmpty()) {
+                        firstNanos = System.nanoTime();
+                    }
+                    batch.add(cmd);
+                    if (batch.size() < flushSize) {
+                        continue;
+                    }
+                } else if (batch.isEmpty()) {
+                    // 先确认没有正在提交的线程，再确认队列为空
+                    if (closed && producers.get() == 0 && queue.isEmpty()) {
+                        return;
+                    }
+                    idle(backoff.next());
+                    continue;
+                } else if (!closed && System.nanoTime() - firstNanos < flushNanos) {
+                    LockSupport.parkNanos(idleNanos);
+                    continue;
+                }
+                jedis = flush(jedis, batch);
+                batch.clear();
+            }
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /**
+     * 短休眠直接park；长休眠先登记，登记后再看一次队列，避免错过登记前刚放进来的命令
+     */
+    private void idle(long nanos) {
+        if (nanos <= flushNanos) {
+            LockSupport.parkNanos(nanos);
+            return;
+        }
+        sleeping.incrementAndGet();
+        try {
+            if (queue.isEmpty() && !closed) {
+                LockSupport.parkNanos(nanos);
+            }
+        } finally {
+            sleeping.decrementAndGet();
+        }
+    }
+
+    /**
+     * 一批命令一次sync；连接出错时整批失败，连接归还后下一批重新借
+     */
+    private Jedis flush(Jedis jedis, List<Command<?>> batch) {
+        try {
+            if (jedis == null) {
+                jedis = pool.getResource();
+            }
+            Pipeline pipeline = jedis.pipelined();
+            for (Command<?> cmd : batch) {
+                cmd.append(pipeline);
+            }
+            pipeline.sync();
+            for (Command<?> cmd : batch) {
+                cmd.complete();
+            }
+            return jedis;
+        } catch (RuntimeException e) {
+            for (Command<?> cmd : batch) {
+                cmd.future.completeExceptionally(e);
+            }
+            if (jedis != null) {
+                jedis.close();
+            }
+            return null;
+        }
+    }
+
+    private static final class Command<T> {
+        final Function<Pipeline, Response<T>> action;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        Response<T> response;
+
+        Command(Function<Pipeline, Response<T>> action) {
+            this.action = action;
+        }
+
+        /**
+         * 参数错误等在加入pipeline前抛出的异常只让这一条失败，不影响同一批的其他命令
+         */
+        void append(Pipeline pipeline) {
+            try {
+                response = action.apply(pipeline);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * 单条命令的错误回复（如WRONGTYPE）只让这一条失败
+         */
+        void complete() {
+            if (response == null) {
+                return;
+            }
+            try {
+                future.complete(response.get());
+            } catch (JedisException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.zyk.redis.jedis;
+
+import redis.clients.jedis.util.Hashing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环，每个节点放virtualNodes个虚拟节点
+ * <p>
+ * 新增第N个节点时只有约1/N的key换节点。key中有{tag}时只对tag做哈希，规则和Redis Cluster相同，
+ * 相关的key可以用同一个tag放在同一个节点上。环是不可变的，增删节点时整体替换，读不加锁。
+ */
+public class ConsistentHashRing<T> {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final int virtualNodes;
+    private final Hashing hashing;
+    private volatile TreeMap<Long, T> ring = new TreeMap<>();
+    private volatile Set<T> nodes = Collections.emptySet();
+
+    public ConsistentHashRing(int virtualNodes) {
+        this(virtualNodes, Hashing.MURMUR_HASH);
+    }
+
+    public ConsistentHashRing(int virtualNodes, Hashing hashing) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes必须大于0");
+        }
+        this.virtualNodes = virtualNodes;
+        this.hashing = hashing;
+    }
+
+    /**
+     * 节点的toString()决定它在环上的位置，重启后保持不变
+     */
+    public synchronized void add(T node) {
+        if (nodes.contains(node)) {
+            return;
+        }
+        TreeMap<Long, T> updated = new TreeMap<>(ring);
+        for (int i = 0; i < virtualNodes; i++) {
+            updated.put(hashing.hash(node + "#" + i), node);
+        }
+        Set<T> updatedNodes = new LinkedHashSet<>(nodes);
+        updatedNodes.add(node);
+        ring = updated;
+        nodes = Collections.unmodifiableSet(updatedNodes);
+    }
+
+    public synchronized void addAll(Collection<T> nodes) {
+        for (T node : nodes) {
+            add(node);
+        }
+    }
+
+    public synchronized boolean remove(T node) {
+        if (!nodes.contains(node)) {
+            return false;
+        }
+        TreeMap<Long, T> updated = new TreeMap<>(ring);
+        updated.values().removeIf(node::equals);
+        Set<T> updatedNodes = new LinkedHashSet<>(nodes);
+        updatedNodes.remove(node);
+        ring = updated;
+        nodes = Collections.unmodifiableSet(updatedNodes);
+        return true;
+    }
+
+    public Set<T> nodes() {
+        return nodes;
+    }
+
+    /**
+     * 顺时针找到的第一个虚拟节点所属的节点
+     */
+    public T nodeFor(String key) {
+        TreeMap<Long, T> current = ring;
+        if (current.isEmpty()) {
+            throw new IllegalStateException("哈希环上没有节点");
+        }
+        Map.Entry<Long, T> entry = current.ceilingEntry(hashing.hash(hashKey(key)));
+        return entry != null ? entry.getValue() : current.firstEntry().getValue();
+    }
+
+    /**
+     * 有非空的{tag}时返回tag，否则返回整个key
+     */
+    public static String hashKey(String key) {
+        int start = key.indexOf('{');
+        if (start >= 0) {
+            int end = key.indexOf('}', start + 1);
+            if (end > start + 1) {
+                return key.substring(start + 1, end);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,35 @@
+package com.zyk.redis.jedis;
+
+/**
+ * 写线程空闲时的休眠时长：从最短开始每次翻倍，到上限后不再增长，取到命令后reset回到最短
+ * <p>
+ * 刚空闲时休眠很短，突发流量的延迟低；持续空闲时休眠到上限，不会一直空转占CPU。只给一个线程使用。
+ */
+final class IdleBackoff {
+
+    private final long minNanos;
+    private final long maxNanos;
+    private long current;
+
+    IdleBackoff(long minNanos, long maxNanos) {
+        if (minNanos <= 0 || maxNanos < minNanos) {
+            throw new IllegalArgumentException("休眠时长必须满足0<min<=max：" + minNanos + "，" + maxNanos);
+        }
+        this.minNanos = minNanos;
+        this.maxNanos = maxNanos;
+        this.current = minNanos;
+    }
+
+    /**
+     * 这一次休眠多久，下一次翻倍
+     */
+    long next() {
+        long nanos = current;
+        current = nanos > maxNanos / 2 ? maxNanos : nanos * 2;
+        return nanos;
+    }
+
+    void reset() {
+        current = minNanos;
+    }
+}
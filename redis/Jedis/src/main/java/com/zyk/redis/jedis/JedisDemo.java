@@ -0,0 +1,73 @@
+package com.zyk.redis.jedis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JedisUtil的使用示例，运行方式：mvn exec:java
+ */
+public class JedisDemo {
+
+    private static final int COUNT = 100_000;
+
+    public static void main(String[] args) {
+        try {
+            // 1.单条命令
+            JedisUtil.run(jedis -> jedis.set("demo:name", "jedis"));
+            System.out.println("demo:name = " + JedisUtil.execute(jedis -> jedis.get("demo:name")));
+
+            // 2.批量写入和读取，对比逐条执行
+            Map<String, String> entries = new LinkedHashMap<>();
+            List<String> keys = new ArrayList<>(COUNT);
+            for (int i = 0; i < COUNT; i++) {
+                entries.put("demo:key:" + i, "value" + i);
+                keys.add("demo:key:" + i);
+            }
+            long begin = System.currentTimeMillis();
+            JedisUtil.run(jedis -> {
+                for (int i = 0; i < 1000; i++) {
+                    jedis.set(keys.get(i), "value" + i);
+                }
+            });
+            long single = System.currentTimeMillis() - begin;
+            begin = System.currentTimeMillis();
+            JedisUtil.setAll(entries, 600);
+            long pipelined = System.currentTimeMillis() - begin;
+            begin = System.currentTimeMillis();
+            List<String> values = JedisUtil.getAll(keys);
+            long read = System.currentTimeMillis() - begin;
+            System.out.printf("逐条SET 1000个key耗时%dms，pipeline SET %d个key耗时%dms，pipeline GET耗时%dms，最后一个值%s%n",
+                    single, COUNT, pipelined, read, values.get(COUNT - 1));
+
+            // 3.批量hash
+            Map<String, Map<String, String>> hashes = new LinkedHashMap<>();
+            for (int i = 0; i < 1000; i++) {
+                Map<String, String> fields = new HashMap<>();
+                fields.put("name", "user_" + i);
+                fields.put("age", String.valueOf(20 + i % 30));
+                hashes.put("demo:user:" + i, fields);
+            }
+            JedisUtil.hsetAll(hashes);
+            System.out.println("demo:user:1 = " + JedisUtil.hgetAll(Collections.singletonList("demo:user:1")));
+
+            // 4.事务
+            List<Object> results = JedisUtil.transaction(tx -> {
+                tx.incr("demo:counter");
+                tx.expire("demo:counter", 600);
+            }, "demo:counter");
+            System.out.println("事务结果：" + results);
+
+            // 清理
+            keys.add("demo:name");
+            keys.add("demo:counter");
+            keys.addAll(hashes.keySet());
+            System.out.println("删除key数量：" + JedisUtil.deleteAll(keys));
+        } finally {
+            JedisUtil.close();
+        }
+    }
+}
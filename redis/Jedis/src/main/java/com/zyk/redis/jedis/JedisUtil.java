@@ -0,0 +1,245 @@
+package com.zyk.redis.jedis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Jedis连接池工具类
+ * <p>
+ * 配置来自classpath下的redis.properties，同名的系统属性优先。
+ * 所有方法都在try-with-resources里借还连接，批量方法按redis.batch.size分块，每块一个pipeline。
+ */
+public final class JedisUtil {
+
+    private static final Properties CONFIG = loadConfig();
+
+    private static final JedisPool POOL = createPool(CONFIG,
+            CONFIG.getProperty("redis.host"), Integer.parseInt(CONFIG.getProperty("redis.port")));
+
+    private static final int BATCH_SIZE = Integer.parseInt(CONFIG.getProperty("redis.batch.size", "500"));
+
+    private JedisUtil() {
+    }
+
+    /**
+     * 读取redis.properties，再用以redis.开头或文件中已有的同名系统属性覆盖
+     */
+    public static Properties loadConfig() {
+        Properties config = new Properties();
+        try (InputStream in = JedisUtil.class.getClassLoader().getResourceAsStream("redis.properties")) {
+            if (in != null) {
+                config.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取redis.properties失败", e);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("redis.") || config.containsKey(name)) {
+                config.setProperty(name, System.getProperty(name));
+            }
+        }
+        return config;
+    }
+
+    /**
+     * 按配置创建连接池，创建时不会建立连接
+     */
+    public static JedisPool createPool(Properties config, String host, int port) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(intValue(config, "redis.pool.maxTotal", 16));
+        poolConfig.setMaxIdle(intValue(config, "redis.pool.maxIdle", 16));
+        poolConfig.setMinIdle(intValue(config, "redis.pool.minIdle", 0));
+        poolConfig.setMaxWait(Duration.ofMillis(intValue(config, "redis.pool.maxWaitMillis", 1000)));
+        // 每次借出都PING一次会多一个往返，交给空闲检测
+        poolConfig.setTestOnBorrow(Boolean.parseBoolean(config.getProperty("redis.pool.testOnBorrow", "false")));
+        poolConfig.setTestWhileIdle(Boolean.parseBoolean(config.getProperty("redis.pool.testWhileIdle", "true")));
+        poolConfig.setTimeBetweenEvictionRuns(
+                Duration.ofMillis(intValue(config, "redis.pool.timeBetweenEvictionRunsMillis", 30000)));
+        poolConfig.setMinEvictableIdleTime(
+                Duration.ofMillis(intValue(config, "redis.pool.minEvictableIdleTimeMillis", 60000)));
+        String password = config.getProperty("redis.password");
+        return new JedisPool(poolConfig, host, port, intValue(config, "redis.timeout", 2000),
+                password == null || password.isEmpty() ? null : password);
+    }
+
+    public static JedisPool getPool() {
+        return POOL;
+    }
+
+    /**
+     * 借出的连接必须close归还，优先用execute/run
+     */
+    public static Jedis getJedis() {
+        return POOL.getResource();
+    }
+
+    public static <T> T execute(Function<Jedis, T> action) {
+        try (Jedis jedis = POOL.getResource()) {
+            return action.apply(jedis);
+        }
+    }
+
+    public static void run(Consumer<Jedis> action) {
+        try (Jedis jedis = POOL.getResource()) {
+            action.accept(jedis);
+        }
+    }
+
+    /**
+     * 在一个pipeline里执行命令，返回所有回复
+     */
+    public static List<Object> pipelined(Consumer<Pipeline> action) {
+        try (Jedis jedis = POOL.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            action.accept(pipeline);
+            return pipeline.syncAndReturnAll();
+        }
+    }
+
+    /**
+     * MULTI/EXEC，被WATCH的key改动时返回null
+     */
+    public static List<Object> transaction(Consumer<Transaction> action, String... watchKeys) {
+        try (Jedis jedis = POOL.getResource()) {
+            if (watchKeys.length > 0) {
+                jedis.watch(watchKeys);
+            }
+            Transaction transaction = jedis.multi();
+            try {
+                action.accept(transaction);
+            } catch (RuntimeException e) {
+                transaction.discard();
+                throw e;
+            }
+            return transaction.exec();
+        }
+    }
+
+    /**
+     * 批量GET，结果顺序和keys一致，不存在的key为null
+     */
+    public static List<String> getAll(List<String> keys) {
+        List<String> values = new ArrayList<>(keys.size());
+        try (Jedis jedis = POOL.getResource()) {
+            for (List<String> chunk : chunks(keys)) {
+                Pipeline pipeline = jedis.pipelined();
+                List<Response<String>> responses = new ArrayList<>(chunk.size());
+                for (String key : chunk) {
+                    responses.add(pipeline.get(key));
+                }
+                pipeline.sync();
+                for (Response<String> response : responses) {
+                    values.add(response.get());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 批量SET，ttlSeconds大于0时用SETEX
+     */
+    public static void setAll(Map<String, String> entries, long ttlSeconds) {
+        try (Jedis jedis = POOL.getResource()) {
+            for (List<Map.Entry<String, String>> chunk : chunks(new ArrayList<>(entries.entrySet()))) {
+                Pipeline pipeline = jedis.pipelined();
+                for (Map.Entry<String, String> entry : chunk) {
+                    if (ttlSeconds > 0) {
+                        pipeline.setex(entry.getKey(), ttlSeconds, entry.getValue());
+                    } else {
+                        pipeline.set(entry.getKey(), entry.getValue());
+                    }
+                }
+                pipeline.sync();
+            }
+        }
+    }
+
+    /**
+     * 批量HSET，每个key的字段用一条HSET写入
+     */
+    public static void hsetAll(Map<String, Map<String, String>> hashes) {
+        try (Jedis jedis = POOL.getResource()) {
+            for (List<Map.Entry<String, Map<String, String>>> chunk : chunks(new ArrayList<>(hashes.entrySet()))) {
+                Pipeline pipeline = jedis.pipelined();
+                for (Map.Entry<String, Map<String, String>> entry : chunk) {
+                    if (!entry.getValue().isEmpty()) {
+                        pipeline.hset(entry.getKey(), entry.getValue());
+                    }
+                }
+                pipeline.sync();
+            }
+        }
+    }
+
+    /**
+     * 批量HGETALL，不存在的key返回空map
+     */
+    public static Map<String, Map<String, String>> hgetAll(List<String> keys) {
+        Map<String, Map<String, String>> hashes = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        try (Jedis jedis = POOL.getResource()) {
+            for (List<String> chunk : chunks(keys)) {
+                Pipeline pipeline = jedis.pipelined();
+                List<Response<Map<String, String>>> responses = new ArrayList<>(chunk.size());
+                for (String key : chunk) {
+                    responses.add(pipeline.hgetAll(key));
+                }
+                pipeline.sync();
+                for (int i = 0; i < chunk.size(); i++) {
+                    hashes.put(chunk.get(i), responses.get(i).get());
+                }
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * 批量DEL，返回删除的key数量
+     */
+    public static long deleteAll(List<String> keys) {
+        long deleted = 0;
+        try (Jedis jedis = POOL.getResource()) {
+            for (List<String> chunk : chunks(keys)) {
+                deleted += jedis.del(chunk.toArray(new String[0]));
+            }
+        }
+        return deleted;
+    }
+
+    public static int getBatchSize() {
+        return BATCH_SIZE;
+    }
+
+    public static void close() {
+        POOL.close();
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += BATCH_SIZE) {
+            chunks.add(items.subList(from, Math.min(from + BATCH_SIZE, items.size())));
+        }
+        return chunks;
+    }
+
+    private static int intValue(Properties config, String name, int defaultValue) {
+        String value = config.getProperty(name);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
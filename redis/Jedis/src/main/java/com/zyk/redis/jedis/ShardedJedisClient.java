@@ -0,0 +1,236 @@
+package com.zyk.redis.jedis;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 客户端分片：用一致性哈希把key分到多个redis，每个节点一个JedisPool
+ * <p>
+ * 多key操作先按节点分组，每个节点一个pipeline，各节点并行执行，结果按输入顺序返回。
+ * 需要放在同一个节点的key用相同的{tag}。增删节点只改变路由，不迁移数据。
+ */
+public class ShardedJedisClient implements Closeable {
+
+    private final Properties config;
+    private final ConsistentHashRing<HostAndPort> ring;
+    private final Map<HostAndPort, JedisPool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final int batchSize;
+
+    /**
+     * 节点和参数都来自redis.properties
+     */
+    public ShardedJedisClient() {
+        this(JedisUtil.loadConfig());
+    }
+
+    public ShardedJedisClient(Properties config) {
+        this(parseNodes(config.getProperty("redis.shard.nodes", "localhost:6379")), config);
+    }
+
+    public ShardedJedisClient(List<HostAndPort> nodes, Properties config) {
+        this.config = config;
+        this.ring = new ConsistentHashRing<>(Integer.parseInt(config.getProperty("redis.shard.virtualNodes",
+                String.valueOf(ConsistentHashRing.DEFAULT_VIRTUAL_NODES))));
+        this.batchSize = Integer.parseInt(config.getProperty("redis.batch.size", "500"));
+        int threads = Integer.parseInt(config.getProperty("redis.shard.threads", "8"));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jedis-shard-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (HostAndPort node : nodes) {
+            addNode(node);
+        }
+    }
+
+    /**
+     * 解析 host:port,host:port
+     */
+    public static List<HostAndPort> parseNodes(String spec) {
+        List<HostAndPort> nodes = new ArrayList<>();
+        for (String node : spec.split(",")) {
+            if (!node.trim().isEmpty()) {
+                nodes.add(HostAndPort.from(node.trim()));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * 加入节点后约1/N的key路由到新节点，原节点上的旧数据需要自行迁移或等待过期
+     */
+    public void addNode(HostAndPort node) {
+        pools.computeIfAbsent(node, n -> JedisUtil.createPool(config, n.getHost(), n.getPort()));
+        ring.add(node);
+    }
+
+    public void removeNode(HostAndPort node) {
+        if (ring.remove(node)) {
+            JedisPool pool = pools.remove(node);
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    public List<HostAndPort> nodes() {
+        return new ArrayList<>(ring.nodes());
+    }
+
+    public HostAndPort nodeFor(String key) {
+        return ring.nodeFor(key);
+    }
+
+    /**
+     * 在key所在节点上执行，action里只能操作同一节点上的key
+     */
+    public <T> T execute(String key, Function<Jedis, T> action) {
+        try (Jedis jedis = pools.get(nodeFor(key)).getResource()) {
+            return action.apply(jedis);
+        }
+    }
+
+    public String get(String key) {
+        return execute(key, jedis -> jedis.get(key));
+    }
+
+    public String set(String key, String value) {
+        return execute(key, jedis -> jedis.set(key, value));
+    }
+
+    public long del(String key) {
+        return execute(key, jedis -> jedis.del(key));
+    }
+
+    public long hset(String key, String field, String value) {
+        return execute(key, jedis -> jedis.hset(key, field, value));
+    }
+
+    public Map<String, String> hgetAll(String key) {
+        return execute(key, jedis -> jedis.hgetAll(key));
+    }
+
+    /**
+     * 批量GET，结果顺序和keys一致
+     */
+    public List<String> getAll(List<String> keys) {
+        return pipelinedByShard(keys, key -> key, (pipeline, key) -> pipeline.get(key));
+    }
+
+    /**
+     * 批量SET，ttlSeconds大于0时用SETEX
+     */
+    public void setAll(Map<String, String> entries, long ttlSeconds) {
+        pipelinedByShard(new ArrayList<>(entries.entrySet()), Map.Entry::getKey, (pipeline, entry) -> ttlSeconds > 0
+                ? pipeline.setex(entry.getKey(), ttlSeconds, entry.getValue())
+                : pipeline.set(entry.getKey(), entry.getValue()));
+    }
+
+    public long deleteAll(List<String> keys) {
+        long deleted = 0;
+        for (Long count : pipelinedByShard(keys, key -> key, (pipeline, key) -> pipeline.del(key))) {
+            deleted += count;
+        }
+        return deleted;
+    }
+
+    public void hsetAll(Map<String, Map<String, String>> hashes) {
+        pipelinedByShard(new ArrayList<>(hashes.entrySet()), Map.Entry::getKey,
+                (pipeline, entry) -> pipeline.hset(entry.getKey(), entry.getValue()));
+    }
+
+    public Map<String, Map<String, String>> hgetAll(List<String> keys) {
+        List<Map<String, String>> values = pipelinedByShard(keys, key -> key,
+                (pipeline, key) -> pipeline.hgetAll(key));
+        Map<String, Map<String, String>> hashes = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        for (int i = 0; i < keys.size(); i++) {
+            hashes.put(keys.get(i), values.get(i));
+        }
+        return hashes;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (JedisPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    /**
+     * 按节点分组，每组按batchSize分块走pipeline，多个节点时并行执行
+     */
+    @SuppressWarnings("unchecked")
+    private <I, R> List<R> pipelinedByShard(List<I> items, Function<I, String> keyOf,
+                                            BiFunction<Pipeline, I, Response<R>> command) {
+        Map<HostAndPort, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            groups.computeIfAbsent(nodeFor(keyOf.apply(items.get(i))), node -> new ArrayList<>()).add(i);
+        }
+        // 每个位置只由一个任务写入，Future.get保证结果可见
+        Object[] results = new Object[items.size()];
+        if (groups.size() == 1) {
+            Map.Entry<HostAndPort, List<Integer>> group = groups.entrySet().iterator().next();
+            runShard(group.getKey(), group.getValue(), items, command, results);
+            return (List<R>) Arrays.asList(results);
+        }
+        List<Future<?>> futures = new ArrayList<>(groups.size());
+        for (Map.Entry<HostAndPort, List<Integer>> group : groups.entrySet()) {
+            futures.add(executor.submit(() -> runShard(group.getKey(), group.getValue(), items, command, results)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JedisException("等待分片结果时被中断", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new JedisException(cause);
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    private <I, R> void runShard(HostAndPort node, List<Integer> indexes, List<I> items,
+                                 BiFunction<Pipeline, I, Response<R>> command, Object[] results) {
+        try (Jedis jedis = pools.get(node).getResource()) {
+            for (int from = 0; from < indexes.size(); from += batchSize) {
+                List<Integer> chunk = indexes.subList(from, Math.min(from + batchSize, indexes.size()));
+                Pipeline pipeline = jedis.pipelined();
+                List<Response<R>> responses = new ArrayList<>(chunk.size());
+                for (Integer index : chunk) {
+                    responses.add(command.apply(pipeline, items.get(index)));
+                }
+                pipeline.sync();
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[chunk.get(i)] = responses.get(i).get();
+                }
+            }
+        }
+    }
+}
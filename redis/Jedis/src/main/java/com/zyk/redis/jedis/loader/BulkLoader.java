@@ -0,0 +1,265 @@
+package com.zyk.redis.jedis.loader;
+
+import com.zyk.redis.jedis.JedisUtil;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 把MySQL里的店铺、秒杀库存、关注关系批量加载到redis，用于redis清空后重建
+ * <p>
+ * 一个读线程用服务端游标按主键顺序流式读取，每batchSize行组成一批放进有界队列，队列满时读线程等待；
+ * 多个写线程各持有一个连接，每批一个pipeline写入。每秒打印一次进度并保存断点，
+ * 失败或中断后重新运行会跳过已完成的表，未完成的表从断点主键之后继续。
+ * <p>
+ * 用法：mvn exec:java -Dexec.mainClass=com.zyk.redis.jedis.loader.BulkLoader -Dexec.args="shop,voucher,follow"
+ * <br>
+ * 参数为空时加载全部表，--reset忽略已有断点；其他参数见redis.properties的loader.*，可用-D覆盖
+ */
+public class BulkLoader {
+
+    private static final Batch POISON = new Batch(null, -1, new ArrayList<>());
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int fetchSize;
+    private final int batchSize;
+    private final int threads;
+    private final int queueSize;
+    private final long shopCacheTtl;
+    private final Checkpoint checkpoint;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder keysWritten = new LongAdder();
+
+    public BulkLoader(Properties config, Checkpoint checkpoint) {
+        this.url = config.getProperty("loader.jdbc.url");
+        this.username = config.getProperty("loader.jdbc.username");
+        this.password = config.getProperty("loader.jdbc.password");
+        this.fetchSize = Integer.parseInt(config.getProperty("loader.fetchSize", "2000"));
+        this.batchSize = Integer.parseInt(config.getProperty("loader.batchSize", "1000"));
+        this.threads = Integer.parseInt(config.getProperty("loader.threads", "4"));
+        this.queueSize = Integer.parseInt(config.getProperty("loader.queueSize", "16"));
+        this.shopCacheTtl = Long.parseLong(config.getProperty("loader.shopCacheTtl", "1800"));
+        this.checkpoint = checkpoint;
+        // 每个写线程一直占用一个连接，超过连接池上限会在借连接时超时
+        int maxTotal = Integer.parseInt(config.getProperty("redis.pool.maxTotal", "16"));
+        if (threads > maxTotal) {
+            throw new IllegalArgumentException("loader.threads不能大于redis.pool.maxTotal：" + threads + " > " + maxTotal);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties config = JedisUtil.loadConfig();
+        List<LoadTable> tables = new ArrayList<>();
+        boolean reset = false;
+        for (String arg : args) {
+            if ("--reset".equals(arg)) {
+                reset = true;
+                continue;
+            }
+            for (String name : arg.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    tables.add(LoadTable.of(name));
+                }
+            }
+        }
+        if (tables.isEmpty()) {
+            tables = Arrays.asList(LoadTable.values());
+        }
+        Checkpoint checkpoint = new Checkpoint(Paths.get(config.getProperty("loader.checkpointFile",
+                "bulk-loader.checkpoint")));
+        if (reset) {
+            checkpoint.reset();
+            checkpoint.save();
+        }
+        try {
+            new BulkLoader(config, checkpoint).load(tables);
+        } finally {
+            JedisUtil.close();
+        }
+    }
+
+    /**
+     * 按顺序加载各表，任意一批写入失败时停止读取，保存断点后抛出异常
+     */
+    public void load(List<LoadTable> tables) throws SQLException, InterruptedException {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueSize);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> drain(queue), "bulk-loader-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-loader-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] lastKeys = new long[1];
+        reporter.scheduleAtFixedRate(() -> {
+            long keys = keysWritten.sum();
+            report(start, keys - lastKeys[0]);
+            lastKeys[0] = keys;
+            checkpoint.save();
+        }, 1, 1, TimeUnit.SECONDS);
+        try {
+            for (LoadTable table : tables) {
+                if (checkpoint.isDone(table.alias())) {
+                    System.out.println("[loader] " + table.alias() + "已加载完成，跳过；重新加载请加--reset");
+                    continue;
+                }
+                readTable(table, queue);
+            }
+        } finally {
+            // 写线程出错后也会继续取队列，毒丸一定能放进去
+            for (int i = 0; i < threads; i++) {
+                queue.put(POISON);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            reporter.shutdownNow();
+            checkpoint.save();
+        }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("写入redis失败，断点已保存，重新运行会继续", cause);
+        }
+        long keys = keysWritten.sum();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("[loader] 完成：%d行，%d个key，耗时%.1fs，平均%.0f keys/s%n",
+                rowsWritten.sum(), keys, seconds, keys / Math.max(seconds, 1e-3));
+    }
+
+    private void readTable(LoadTable table, BlockingQueue<Batch> queue) throws SQLException, InterruptedException {
+        checkpoint.start(table.alias());
+        long lastId = checkpoint.lastId(table.alias());
+        System.out.println("[loader] 开始加载" + table.alias() + "，从主键" + lastId + "之后开始");
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             PreparedStatement statement = connection.prepareStatement(table.sql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // url里开启useCursorFetch后按fetchSize分批从服务端取
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, lastId);
+            try (ResultSet rs = statement.executeQuery()) {
+                long seq = 0;
+                List<Object[]> rows = new ArrayList<>(batchSize);
+                while (rs.next()) {
+                    rows.add(table.read(rs));
+                    rowsRead.increment();
+                    if (rows.size() == batchSize) {
+                        submit(queue, new Batch(table, seq++, rows));
+                        rows = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    submit(queue, new Batch(table, seq++, rows));
+                }
+                checkpoint.finish(table.alias(), seq);
+            }
+        }
+    }
+
+    /**
+     * 队列满时等待写线程，期间写线程出错就不再读取
+     */
+    private void submit(BlockingQueue<Batch> queue, Batch batch) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                break;
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("写入redis失败，停止读取", failure.get());
+        }
+    }
+
+    private void drain(BlockingQueue<Batch> queue) {
+        Jedis jedis = null;
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == POISON) {
+                    return;
+                }
+                if (failure.get() != null) {
+                    // 已经失败，剩下的批次不再写入，断点停在第一个未完成的批次
+                    continue;
+                }
+                try {
+                    if (jedis == null) {
+                        jedis = JedisUtil.getJedis();
+                    }
+                    write(jedis, batch);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    private void write(Jedis jedis, Batch batch) {
+        Pipeline pipeline = jedis.pipelined();
+        int keys = 0;
+        for (Object[] row : batch.rows) {
+            keys += batch.table.write(pipeline, row, shopCacheTtl);
+        }
+        for (Object reply : pipeline.syncAndReturnAll()) {
+            if (reply instanceof JedisDataException) {
+                throw (JedisDataException) reply;
+            }
+        }
+        checkpoint.complete(batch.table.alias(), batch.seq, (Long) batch.rows.get(batch.rows.size() - 1)[0]);
+        rowsWritten.add(batch.rows.size());
+        keysWritten.add(keys);
+    }
+
+    private void report(long start, long keysLastSecond) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long keys = keysWritten.sum();
+        System.out.printf("[loader] 已读%d行，已写%d行/%d个key，当前%d keys/s，平均%.0f keys/s%n",
+                rowsRead.sum(), rowsWritten.sum(), keys, keysLastSecond, keys / seconds);
+    }
+
+    private static final class Batch {
+        final LoadTable table;
+        final long seq;
+        final List<Object[]> rows;
+
+        Batch(LoadTable table, long seq, List<Object[]> rows) {
+            this.table = table;
+            this.seq = seq;
+            this.rows = rows;
+        }
+    }
+}
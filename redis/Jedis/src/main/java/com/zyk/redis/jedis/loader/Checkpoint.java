@@ -0,0 +1,111 @@
+package com.zyk.redis.jedis.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 断点文件，每张表记录已经写入redis的最大主键和是否加载完成
+ * <p>
+ * 批次由多个线程并行写入，完成顺序和读取顺序不同。只有从第0批开始连续完成的批次才推进主键，
+ * 中途失败时重新运行会从第一个未完成的批次开始，已经写过的批次可能重复写入一次。
+ */
+public class Checkpoint {
+
+    private final Path file;
+    private final Properties saved = new Properties();
+    private final Map<String, Progress> progress = new HashMap<>();
+
+    public Checkpoint(Path file) {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                saved.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取断点文件失败：" + file, e);
+            }
+        }
+    }
+
+    public synchronized long lastId(String table) {
+        return Long.parseLong(saved.getProperty(table + ".lastId", "0"));
+    }
+
+    public synchronized boolean isDone(String table) {
+        return Boolean.parseBoolean(saved.getProperty(table + ".done", "false"));
+    }
+
+    /**
+     * 开始加载一张表，批次序号从0开始
+     */
+    public synchronized void start(String table) {
+        progress.put(table, new Progress());
+        saved.setProperty(table + ".done", "false");
+    }
+
+    /**
+     * 第seq批已经写入，lastId是这一批的最大主键
+     */
+    public synchronized void complete(String table, long seq, long lastId) {
+        Progress p = progress.get(table);
+        p.completed.put(seq, lastId);
+        Long id;
+        while ((id = p.completed.remove(p.next)) != null) {
+            p.next++;
+            saved.setProperty(table + ".lastId", String.valueOf(id));
+        }
+        markDoneIfFinished(table, p);
+    }
+
+    /**
+     * 读完一张表，一共batches批，全部写入后标记完成
+     */
+    public synchronized void finish(String table, long batches) {
+        Progress p = progress.get(table);
+        p.total = batches;
+        markDoneIfFinished(table, p);
+    }
+
+    public synchronized void reset() {
+        saved.clear();
+        progress.clear();
+    }
+
+    /**
+     * 先写临时文件再替换，进程中途退出时不会留下写了一半的断点
+     */
+    public synchronized void save() {
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                saved.store(out, "BulkLoader checkpoint");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存断点文件失败：" + file, e);
+        }
+    }
+
+    private void markDoneIfFinished(String table, Progress p) {
+        if (p.next == p.total) {
+            saved.setProperty(table + ".done", "true");
+        }
+    }
+
+    private static class Progress {
+        /** 下一个等待完成的批次 */
+        long next;
+        /** 读完之前为-1 */
+        long total = -1;
+        /** 已完成但前面还有批次未完成 */
+        final TreeMap<Long, Long> completed = new TreeMap<>();
+    }
+}
@@ -0,0 +1,149 @@
+package com.zyk.redis.jedis.loader;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import redis.clients.jedis.Pipeline;
+
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 可以加载的表，key和hm-dianping的RedisConstants保持一致
+ * <p>
+ * 每张表按主键升序读取，第一列必须是主键，断点续传时从记录的主键之后继续。
+ * 写入的命令都是幂等的（SET/GEOADD/SADD），同一批重复写入没有副作用。
+ */
+public enum LoadTable {
+
+    /**
+     * 店铺缓存cache:shop:{id}，JSON字段和Shop实体一致；同时写入shop:geo:{typeId}
+     */
+    SHOP("shop", "SELECT id, name, type_id, images, area, address, x, y, avg_price, sold, comments, score, "
+            + "open_hours, create_time, update_time FROM tb_shop WHERE id > ? ORDER BY id") {
+        @Override
+        Object[] read(ResultSet rs) throws SQLException {
+            return new Object[]{rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getString(5),
+                    rs.getString(6), rs.getDouble(7), rs.getDouble(8), rs.getObject(9), rs.getObject(10),
+                    rs.getObject(11), rs.getObject(12), rs.getString(13), format(rs.getTimestamp(14)),
+                    format(rs.getTimestamp(15))};
+        }
+
+        @Override
+        int write(Pipeline pipeline, Object[] row, long ttlSeconds) {
+            Map<String, Object> shop = new LinkedHashMap<>(20);
+            for (int i = 0; i < SHOP_FIELDS.length; i++) {
+                shop.put(SHOP_FIELDS[i], row[i]);
+            }
+            String id = row[0].toString();
+            String json;
+            try {
+                json = MAPPER.writeValueAsString(shop);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException("店铺序列化失败：" + id, e);
+            }
+            if (ttlSeconds > 0) {
+                pipeline.setex(CACHE_SHOP_KEY + id, ttlSeconds, json);
+            } else {
+                pipeline.set(CACHE_SHOP_KEY + id, json);
+            }
+            pipeline.geoadd(SHOP_GEO_KEY + row[2], (Double) row[6], (Double) row[7], id);
+            return 2;
+        }
+    },
+
+    /**
+     * 秒杀库存seckill:stock:{voucherId}
+     */
+    VOUCHER("voucher", "SELECT voucher_id, stock FROM tb_seckill_voucher WHERE voucher_id > ? ORDER BY voucher_id") {
+        @Override
+        Object[] read(ResultSet rs) throws SQLException {
+            return new Object[]{rs.getLong(1), rs.getInt(2)};
+        }
+
+        @Override
+        int write(Pipeline pipeline, Object[] row, long ttlSeconds) {
+            pipeline.set(SECKILL_STOCK_KEY + row[0], row[1].toString());
+            return 1;
+        }
+    },
+
+    /**
+     * 关注集合follows:{userId}
+     */
+    FOLLOW("follow", "SELECT id, user_id, follow_user_id FROM tb_follow WHERE id > ? ORDER BY id") {
+        @Override
+        Object[] read(ResultSet rs) throws SQLException {
+            return new Object[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)};
+        }
+
+        @Override
+        int write(Pipeline pipeline, Object[] row, long ttlSeconds) {
+            pipeline.sadd(FOLLOW_KEY + row[1], row[2].toString());
+            return 1;
+        }
+    };
+
+    static final String CACHE_SHOP_KEY = "cache:shop:";
+    static final String SHOP_GEO_KEY = "shop:geo:";
+    static final String SECKILL_STOCK_KEY = "seckill:stock:";
+    static final String FOLLOW_KEY = "follows:";
+
+    private static final String[] SHOP_FIELDS = {"id", "name", "typeId", "images", "area", "address", "x", "y",
+            "avgPrice", "sold", "comments", "score", "openHours", "createTime", "updateTime"};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String alias;
+    private final String sql;
+
+    LoadTable(String alias, String sql) {
+        this.alias = alias;
+        this.sql = sql;
+    }
+
+    /**
+     * 命令行和checkpoint文件里使用的名字
+     */
+    public String alias() {
+        return alias;
+    }
+
+    /**
+     * 参数是上次加载到的主键
+     */
+    public String sql() {
+        return sql;
+    }
+
+    /**
+     * 在读线程里把当前行取出来，下标0是主键
+     */
+    abstract Object[] read(ResultSet rs) throws SQLException;
+
+    /**
+     * 在写线程里把一行加入pipeline，返回写入的key数量；ttlSeconds只对缓存类数据生效
+     */
+    abstract int write(Pipeline pipeline, Object[] row, long ttlSeconds);
+
+    public static LoadTable of(String name) {
+        for (LoadTable table : values()) {
+            if (table.alias.equalsIgnoreCase(name.trim())) {
+                return table;
+            }
+        }
+        throw new IllegalArgumentException("未知的表：" + name + "，可选shop、voucher、follow");
+    }
+
+    /**
+     * 和Spring Boot默认的LocalDateTime序列化格式一致，缓存可以直接反序列化成Shop
+     */
+    private static String format(Timestamp timestamp) {
+        return timestamp == null ? null
+                : timestamp.toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
@@ -0,0 +1,172 @@
+package com.zyk.redis.jedis;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 读写命令需要本地redis-server，没有启动时跳过，启动方式见run.sh；背压、关闭、休眠唤醒和连接失败不需要redis
+ */
+public class AsyncPipelineTest {
+
+    private static final String COUNTER = "test:async:counter";
+    private static final String STRING = "test:async:string";
+
+    private static JedisConnectionException redisDown;
+
+    @BeforeClass
+    public static void checkRedis() {
+        try {
+            JedisUtil.run(jedis -> jedis.ping());
+        } catch (JedisConnectionException e) {
+            redisDown = e;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (redisDown == null) {
+            JedisUtil.deleteAll(Arrays.asList(COUNTER, STRING));
+        }
+    }
+
+    @Test
+    public void testCommandsFromManyThreads() throws Exception {
+        Assume.assumeNoException("本地redis-server未启动", redisDown);
+        int threads = 8;
+        int perThread = 10_000;
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        try (AsyncPipeline pipeline = new AsyncPipeline(JedisUtil.getPool(), config(1024))) {
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<CompletableFuture<Long>> own = new ArrayList<>(perThread);
+                producers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        own.add(pipeline.incrBy(COUNTER, 1));
+                    }
+                    synchronized (futures) {
+                        futures.addAll(own);
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+        }
+
+        // close会等所有命令写完
+        for (CompletableFuture<Long> future : futures) {
+            assertTrue(future.isDone());
+        }
+        assertEquals(String.valueOf(threads * perThread), JedisUtil.execute(jedis -> jedis.get(COUNTER)));
+    }
+
+    @Test
+    public void testErrorReplyFailsOnlyThatCommand() throws Exception {
+        Assume.assumeNoException("本地redis-server未启动", redisDown);
+        try (AsyncPipeline pipeline = new AsyncPipeline(JedisUtil.getPool(), config(1024))) {
+            CompletableFuture<String> set = pipeline.set(STRING, "notNumber");
+            CompletableFuture<Long> incr = pipeline.incrBy(STRING, 1);
+            CompletableFuture<String> get = pipeline.get(STRING);
+
+            assertEquals("OK", set.get(5, TimeUnit.SECONDS));
+            try {
+                incr.get(5, TimeUnit.SECONDS);
+                fail("对字符串INCR应该失败");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof JedisDataException);
+            }
+            assertEquals("notNumber", get.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testBackPressureWhenQueueFull() {
+        Properties config = config(2);
+        // 没有写线程取走命令，队列放满后等待超时就拒绝
+        config.setProperty("redis.async.writers", "0");
+        config.setProperty("redis.async.offerTimeoutMillis", "10");
+        try (AsyncPipeline pipeline = new AsyncPipeline(JedisUtil.getPool(), config)) {
+            pipeline.get(STRING);
+            pipeline.get(STRING);
+            try {
+                pipeline.get(STRING);
+                fail("队列满时应该拒绝");
+            } catch (RejectedExecutionException expected) {
+                assertEquals(2, pipeline.pending());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchFailsWhenConnectionFails() throws Exception {
+        // 1号端口没有服务，借连接失败时整批命令都失败，写线程继续处理后面的命令
+        JedisPool unreachable = new JedisPool("localhost", 1);
+        try (AsyncPipeline pipeline = new AsyncPipeline(unreachable, config(16))) {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    pipeline.get(STRING).get(5, TimeUnit.SECONDS);
+                    fail("连接失败时命令应该失败");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof JedisConnectionException);
+                }
+            }
+        } finally {
+            unreachable.close();
+        }
+    }
+
+    @Test
+    public void testSubmitWakesLongIdleWriter() throws Exception {
+        Properties config = config(16);
+        config.setProperty("redis.async.writers", "1");
+        // 休眠上限远大于下面的等待时间，命令能按时完成说明写线程是被提交唤醒的
+        config.setProperty("redis.async.maxIdleMicros", String.valueOf(TimeUnit.MINUTES.toMicros(10)));
+        JedisPool unreachable = new JedisPool("localhost", 1);
+        try (AsyncPipeline pipeline = new AsyncPipeline(unreachable, config)) {
+            // 空闲1秒后写线程每次休眠几百毫秒以上
+            Thread.sleep(1000);
+            CompletableFuture<String> future = pipeline.get(STRING);
+            try {
+                future.get(500, TimeUnit.MILLISECONDS);
+                fail("连接失败时命令应该失败");
+            } catch (ExecutionException expected) {
+                assertTrue(future.isCompletedExceptionally());
+            }
+        } finally {
+            unreachable.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSubmitAfterClose() {
+        AsyncPipeline pipeline = new AsyncPipeline(JedisUtil.getPool(), config(16));
+        pipeline.close();
+        pipeline.get(STRING);
+    }
+
+    private static Properties config(int capacity) {
+        Properties config = new Properties();
+        config.setProperty("redis.async.writers", "2");
+        config.setProperty("redis.async.queueCapacity", String.valueOf(capacity));
+        config.setProperty("redis.async.flushSize", "128");
+        config.setProperty("redis.async.flushMicros", "100");
+        return config;
+    }
+}
@@ -0,0 +1,82 @@
+package com.zyk.redis.jedis;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+public class BoundedMpmcQueueTest {
+
+    @Test
+    public void testCapacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new BoundedMpmcQueue<Integer>(5).capacity());
+        assertEquals(8, new BoundedMpmcQueue<Integer>(8).capacity());
+    }
+
+    @Test
+    public void testOfferFailsWhenFullAndKeepsFifoOrder() {
+        BoundedMpmcQueue<Integer> queue = new BoundedMpmcQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+
+        assertEquals(Integer.valueOf(0), queue.poll());
+        // 取走一个后又有空位，环形数组进入下一圈
+        assertTrue(queue.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 200_000;
+        BoundedMpmcQueue<Long> queue = new BoundedMpmcQueue<>(1024);
+        LongAdder sum = new LongAdder();
+        AtomicLong received = new AtomicLong();
+        long total = (long) producers * perProducer;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            threads.add(new Thread(() -> {
+                for (long i = base; i < base + perProducer; i++) {
+                    while (!queue.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                while (received.get() < total) {
+                    Long value = queue.poll();
+                    if (value == null) {
+                        Thread.yield();
+                    } else {
+                        sum.add(value);
+                        received.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(30_000);
+        }
+
+        // 每个元素恰好被取走一次
+        assertEquals(total, received.get());
+        assertEquals(total * (total - 1) / 2, sum.sum());
+    }
+}
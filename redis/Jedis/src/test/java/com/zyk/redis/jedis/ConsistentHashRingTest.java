@@ -0,0 +1,92 @@
+package com.zyk.redis.jedis;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    public void testKeysSpreadEvenly() {
+        ConsistentHashRing<String> ring = ring("node1", "node2", "node3", "node4");
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("shop:" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // 160个虚拟节点时每个节点偏差在20%以内
+            assertTrue("分布不均匀：" + counts, Math.abs(count - KEYS / 4) < KEYS / 4 * 0.2);
+        }
+    }
+
+    @Test
+    public void testAddingNodeMovesAboutOneNth() {
+        ConsistentHashRing<String> ring = ring("node1", "node2", "node3", "node4");
+        String[] before = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            before[i] = ring.nodeFor("shop:" + i);
+        }
+
+        ring.add("node5");
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String node = ring.nodeFor("shop:" + i);
+            if (!node.equals(before[i])) {
+                // 只会从旧节点移到新节点，旧节点之间不互相移动
+                assertEquals("node5", node);
+                moved++;
+            }
+        }
+        double ratio = (double) moved / KEYS;
+        assertTrue("移动比例：" + ratio, ratio > 0.15 && ratio < 0.25);
+    }
+
+    @Test
+    public void testRemovingNodeOnlyMovesItsKeys() {
+        ConsistentHashRing<String> ring = ring("node1", "node2", "node3");
+        String[] before = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            before[i] = ring.nodeFor("shop:" + i);
+        }
+
+        assertTrue(ring.remove("node2"));
+
+        for (int i = 0; i < KEYS; i++) {
+            if (!"node2".equals(before[i])) {
+                assertEquals(before[i], ring.nodeFor("shop:" + i));
+            }
+        }
+        assertFalse(ring.remove("node2"));
+    }
+
+    @Test
+    public void testHashTagKeepsKeysTogether() {
+        ConsistentHashRing<String> ring = ring("node1", "node2", "node3", "node4");
+
+        for (int i = 0; i < 100; i++) {
+            String node = ring.nodeFor("seckill:stock:{" + i + "}");
+            assertEquals(node, ring.nodeFor("seckill:order:{" + i + "}"));
+            assertEquals(node, ring.nodeFor("{" + i + "}"));
+        }
+        assertEquals("user:1", ConsistentHashRing.hashKey("user:1"));
+        assertEquals("user:{}:1", ConsistentHashRing.hashKey("user:{}:1"));
+        assertEquals("a", ConsistentHashRing.hashKey("x{a}y{b}"));
+    }
+
+    private static ConsistentHashRing<String> ring(String... nodes) {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        for (String node : nodes) {
+            ring.add(node);
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,35 @@
+package com.zyk.redis.jedis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IdleBackoffTest {
+
+    @Test
+    public void testDoublesUpToCapAndResets() {
+        IdleBackoff backoff = new IdleBackoff(50, 300);
+        assertEquals(50, backoff.next());
+        assertEquals(100, backoff.next());
+        assertEquals(200, backoff.next());
+        assertEquals(300, backoff.next());
+        assertEquals(300, backoff.next());
+
+        backoff.reset();
+        assertEquals(50, backoff.next());
+    }
+
+    @Test
+    public void testLargeCapDoesNotOverflow() {
+        IdleBackoff backoff = new IdleBackoff(1, Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(backoff.next() > 0);
+        }
+        assertEquals(Long.MAX_VALUE, backoff.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsCapBelowMin() {
+        new IdleBackoff(100, 50);
+    }
+}
@@ -0,0 +1,120 @@
+package com.zyk.redis.jedis;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * 需要本地redis-server，没有启动时跳过，启动方式见run.sh
+ */
+public class JedisTest {
+
+    private final List<String> keys = new ArrayList<>();
+
+    @BeforeClass
+    public static void checkRedis() {
+        try {
+            JedisUtil.run(jedis -> jedis.ping());
+        } catch (JedisConnectionException e) {
+            Assume.assumeNoException("本地redis-server未启动", e);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        JedisUtil.deleteAll(keys);
+    }
+
+    @Test
+    public void testPoolConfig() {
+        Properties config = new Properties();
+        config.setProperty("redis.pool.maxTotal", "32");
+        config.setProperty("redis.pool.maxIdle", "8");
+        config.setProperty("redis.pool.minEvictableIdleTimeMillis", "5000");
+        try (JedisPool pool = JedisUtil.createPool(config, "localhost", 6379)) {
+            assertEquals(32, pool.getMaxTotal());
+            assertEquals(8, pool.getMaxIdle());
+            assertFalse(pool.getTestOnBorrow());
+            assertTrue(pool.getTestWhileIdle());
+            assertEquals(5000, pool.getMinEvictableIdleDuration().toMillis());
+        }
+    }
+
+    @Test
+    public void testExecute() {
+        keys.add("test:jedis:string");
+        JedisUtil.run(jedis -> jedis.set("test:jedis:string", "testValue"));
+        assertEquals("testValue", JedisUtil.execute(jedis -> jedis.get("test:jedis:string")));
+        // 连接都已归还
+        assertEquals(0, JedisUtil.getPool().getNumActive());
+    }
+
+    @Test
+    public void testSetAllAndGetAllAcrossChunks() {
+        int count = JedisUtil.getBatchSize() * 2 + 7;
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            entries.put("test:jedis:bulk:" + i, "value" + i);
+        }
+        keys.addAll(entries.keySet());
+        keys.add("test:jedis:bulk:missing");
+
+        JedisUtil.setAll(entries, 60);
+        List<String> values = JedisUtil.getAll(keys);
+
+        assertEquals(count + 1, values.size());
+        assertEquals("value0", values.get(0));
+        assertEquals("value" + (count - 1), values.get(count - 1));
+        assertNull(values.get(count));
+        assertTrue(JedisUtil.execute(jedis -> jedis.ttl("test:jedis:bulk:0")) > 0);
+    }
+
+    @Test
+    public void testHashHelpers() {
+        Map<String, Map<String, String>> hashes = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("name", "user_" + i);
+            fields.put("age", String.valueOf(20 + i));
+            hashes.put("test:jedis:hash:" + i, fields);
+        }
+        keys.addAll(hashes.keySet());
+
+        JedisUtil.hsetAll(hashes);
+        Map<String, Map<String, String>> read = JedisUtil.hgetAll(
+                Arrays.asList("test:jedis:hash:2", "test:jedis:hash:0", "test:jedis:hash:none"));
+
+        assertEquals(hashes.get("test:jedis:hash:2"), read.get("test:jedis:hash:2"));
+        assertEquals(hashes.get("test:jedis:hash:0"), read.get("test:jedis:hash:0"));
+        assertTrue(read.get("test:jedis:hash:none").isEmpty());
+    }
+
+    @Test
+    public void testPipelinedAndTransaction() {
+        keys.add("test:jedis:counter");
+        List<Object> replies = JedisUtil.pipelined(pipeline -> {
+            pipeline.incr("test:jedis:counter");
+            pipeline.incrBy("test:jedis:counter", 9);
+        });
+        assertEquals(Arrays.asList(1L, 10L), replies);
+
+        List<Object> results = JedisUtil.transaction(tx -> {
+            tx.incr("test:jedis:counter");
+            tx.expire("test:jedis:counter", 60);
+        }, "test:jedis:counter");
+        assertEquals(Arrays.asList(11L, 1L), results);
+    }
+}
@@ -0,0 +1,107 @@
+package com.zyk.redis.jedis;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * 需要redis.shard.nodes配置的多个本地redis-server，没有启动时跳过，启动方式见run.sh
+ */
+public class ShardedJedisClientTest {
+
+    private ShardedJedisClient client;
+    private final List<String> keys = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        client = new ShardedJedisClient();
+        for (HostAndPort node : client.nodes()) {
+            try (Jedis jedis = new Jedis(node)) {
+                jedis.ping();
+            } catch (JedisConnectionException e) {
+                client.close();
+                Assume.assumeNoException("分片redis-server未启动：" + node, e);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.deleteAll(keys);
+            client.close();
+        }
+    }
+
+    @Test
+    public void testKeysLandOnTheirShard() {
+        for (int i = 0; i < 100; i++) {
+            keys.add("test:shard:" + i);
+            client.set("test:shard:" + i, "value" + i);
+        }
+
+        Set<HostAndPort> used = new HashSet<>();
+        for (String key : keys) {
+            HostAndPort node = client.nodeFor(key);
+            used.add(node);
+            try (Jedis jedis = new Jedis(node)) {
+                assertNotNull("key不在它的分片上：" + key, jedis.get(key));
+            }
+        }
+        assertEquals(client.nodes().size(), used.size());
+    }
+
+    @Test
+    public void testMultiKeyOpsAcrossShards() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            entries.put("test:shard:bulk:" + i, "value" + i);
+        }
+        keys.addAll(entries.keySet());
+
+        client.setAll(entries, 60);
+        List<String> read = new ArrayList<>(keys);
+        read.add("test:shard:bulk:missing");
+        List<String> values = client.getAll(read);
+
+        assertEquals(new ArrayList<>(entries.values()), values.subList(0, entries.size()));
+        assertNull(values.get(entries.size()));
+        assertEquals(entries.size(), client.deleteAll(keys));
+    }
+
+    @Test
+    public void testHashTagKeepsRelatedKeysOnOneShard() {
+        Map<String, Map<String, String>> hashes = new LinkedHashMap<>();
+        for (String name : Arrays.asList("info", "stock", "orders")) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("name", name);
+            hashes.put("test:shard:voucher:{10}:" + name, fields);
+        }
+        keys.addAll(hashes.keySet());
+
+        client.hsetAll(hashes);
+
+        HostAndPort node = client.nodeFor("{10}");
+        try (Jedis jedis = new Jedis(node)) {
+            for (String key : hashes.keySet()) {
+                assertEquals(hashes.get(key), jedis.hgetAll(key));
+            }
+        }
+        assertEquals(hashes, client.hgetAll(new ArrayList<>(hashes.keySet())));
+    }
+}
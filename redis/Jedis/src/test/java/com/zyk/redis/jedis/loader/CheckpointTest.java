@@ -0,0 +1,64 @@
+package com.zyk.redis.jedis.loader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class CheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLastIdOnlyAdvancesOverContiguousBatches() {
+        Checkpoint checkpoint = new Checkpoint(folder.getRoot().toPath().resolve("loader.checkpoint"));
+        checkpoint.start("shop");
+
+        checkpoint.complete("shop", 1, 2000);
+        checkpoint.complete("shop", 2, 3000);
+        // 第0批还没完成，后面的批次不能推进
+        assertEquals(0, checkpoint.lastId("shop"));
+
+        checkpoint.complete("shop", 0, 1000);
+        assertEquals(3000, checkpoint.lastId("shop"));
+        assertFalse(checkpoint.isDone("shop"));
+    }
+
+    @Test
+    public void testDoneAfterAllBatchesWritten() {
+        Checkpoint checkpoint = new Checkpoint(folder.getRoot().toPath().resolve("loader.checkpoint"));
+        checkpoint.start("follow");
+        checkpoint.complete("follow", 0, 1000);
+
+        checkpoint.finish("follow", 2);
+        assertFalse(checkpoint.isDone("follow"));
+
+        checkpoint.complete("follow", 1, 1500);
+        assertTrue(checkpoint.isDone("follow"));
+    }
+
+    @Test
+    public void testResumeFromSavedFile() {
+        Path file = folder.getRoot().toPath().resolve("loader.checkpoint");
+        Checkpoint checkpoint = new Checkpoint(file);
+        checkpoint.start("shop");
+        checkpoint.complete("shop", 0, 1000);
+        checkpoint.start("voucher");
+        checkpoint.complete("voucher", 0, 50);
+        checkpoint.finish("voucher", 1);
+        checkpoint.save();
+
+        Checkpoint resumed = new Checkpoint(file);
+        assertEquals(1000, resumed.lastId("shop"));
+        assertFalse(resumed.isDone("shop"));
+        assertTrue(resumed.isDone("voucher"));
+
+        resumed.reset();
+        assertEquals(0, resumed.lastId("shop"));
+        assertFalse(resumed.isDone("voucher"));
+    }
+}
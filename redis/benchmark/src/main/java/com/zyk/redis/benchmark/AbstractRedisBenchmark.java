@@ -0,0 +1,56 @@
+package com.zyk.redis.benchmark;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个客户端实现同一组负载，方法名相同，结果按方法名对比
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AbstractRedisBenchmark {
+
+    /**
+     * GET一个随机key
+     */
+    public abstract Object get();
+
+    /**
+     * SET一个随机key，value 100字节
+     */
+    public abstract Object set();
+
+    /**
+     * 一条MGET读100个key
+     */
+    public abstract Object mget();
+
+    /**
+     * 一个pipeline里100条GET
+     */
+    public abstract Object pipelinedGet();
+
+    /**
+     * HSET一个字段
+     */
+    public abstract Object hset();
+
+    /**
+     * HGETALL一个10字段的hash
+     */
+    public abstract Object hgetAll();
+
+    /**
+     * EVALSHA执行限流脚本
+     */
+    public abstract Object eval();
+}
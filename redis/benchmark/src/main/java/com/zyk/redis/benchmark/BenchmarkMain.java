@@ -0,0 +1,42 @@
+package com.zyk.redis.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 依次用不同线程数运行全部基准，每个线程数输出一个JSON结果
+ * <p>
+ * 运行方式：mvn package &amp;&amp; java -jar target/benchmarks.jar
+ * <ul>
+ *     <li>-Dthreads=1,4,16,64 线程数</li>
+ *     <li>-Dinclude=Jedis 只运行名字匹配的基准，例如 Lettuce.*mget</li>
+ *     <li>-Dresults=results 结果目录，文件名为 redis-clients-{线程数}t.json</li>
+ *     <li>-Dredis.host、-Dredis.port 目标redis</li>
+ * </ul>
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        String[] threads = System.getProperty("threads", "1,4,16,64").split(",");
+        String include = System.getProperty("include", "com.zyk.redis.benchmark.*Benchmark");
+        File results = new File(System.getProperty("results", "results"));
+        if (!results.isDirectory() && !results.mkdirs()) {
+            throw new IllegalStateException("无法创建结果目录 " + results);
+        }
+        for (String value : threads) {
+            int count = Integer.parseInt(value.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(count)
+                    .jvmArgsAppend("-Dredis.host=" + Workload.HOST, "-Dredis.port=" + Workload.PORT)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(results, "redis-clients-" + count + "t.json").getPath());
+            new Runner(options.build()).run();
+        }
+    }
+}
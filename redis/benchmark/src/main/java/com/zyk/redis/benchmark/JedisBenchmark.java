@@ -0,0 +1,103 @@
+package com.zyk.redis.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jedis：每次操作从连接池借一个连接
+ */
+@State(Scope.Benchmark)
+public class JedisBenchmark extends AbstractRedisBenchmark {
+
+    private JedisPool pool;
+    private String sha;
+
+    @Setup
+    public void setUp() {
+        Workload.seed();
+        JedisPoolConfig config = new JedisPoolConfig();
+        // 线程数最多64，保证不会等连接
+        config.setMaxTotal(128);
+        config.setMaxIdle(128);
+        config.setTestOnBorrow(false);
+        pool = new JedisPool(config, Workload.HOST, Workload.PORT);
+        try (Jedis jedis = pool.getResource()) {
+            sha = jedis.scriptLoad(Workload.LUA_SCRIPT);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    @Override
+    public Object get() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.get(Workload.randomKey());
+        }
+    }
+
+    @Benchmark
+    @Override
+    public Object set() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.set(Workload.randomKey(), Workload.VALUE);
+        }
+    }
+
+    @Benchmark
+    @Override
+    public Object mget() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.mget(Workload.randomBatch());
+        }
+    }
+
+    @Benchmark
+    @Override
+    public Object pipelinedGet() {
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<String>> responses = new ArrayList<>(Workload.BATCH_SIZE);
+            for (String key : Workload.randomBatch()) {
+                responses.add(pipeline.get(key));
+            }
+            pipeline.sync();
+            return responses;
+        }
+    }
+
+    @Benchmark
+    @Override
+    public Object hset() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.hset(Workload.randomHashKey(), "field0", Workload.VALUE);
+        }
+    }
+
+    @Benchmark
+    @Override
+    public Map<String, String> hgetAll() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.hgetAll(Workload.randomHashKey());
+        }
+    }
+
+    @Benchmark
+    @Override
+    public Object eval() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.evalsha(sha, 1, Workload.randomCounterKey(), "60");
+        }
+    }
+}
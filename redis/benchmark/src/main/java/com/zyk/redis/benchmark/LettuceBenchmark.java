@@ -0,0 +1,97 @@
+package com.zyk.redis.benchmark;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lettuce：所有线程共用一个连接，和springboot_redis默认配置相同
+ */
+@State(Scope.Benchmark)
+public class LettuceBenchmark extends AbstractRedisBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCommands<String, String> sync;
+    private RedisAsyncCommands<String, String> async;
+    private String sha;
+
+    @Setup
+    public void setUp() {
+        Workload.seed();
+        client = RedisClient.create(RedisURI.create(Workload.HOST, Workload.PORT));
+        connection = client.connect();
+        sync = connection.sync();
+        async = connection.async();
+        sha = sync.scriptLoad(Workload.LUA_SCRIPT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connection.close();
+        client.shutdown();
+    }
+
+    @Benchmark
+    @Override
+    public Object get() {
+        return sync.get(Workload.randomKey());
+    }
+
+    @Benchmark
+    @Override
+    public Object set() {
+        return sync.set(Workload.randomKey(), Workload.VALUE);
+    }
+
+    @Benchmark
+    @Override
+    public Object mget() {
+        return sync.mget(Workload.randomBatch());
+    }
+
+    @Benchmark
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object pipelinedGet() {
+        // 共享连接不能关闭自动flush，异步发出后一起等待
+        String[] keys = Workload.randomBatch();
+        RedisFuture<String>[] futures = new RedisFuture[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            futures[i] = async.get(keys[i]);
+        }
+        if (!LettuceFutures.awaitAll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS, futures)) {
+            throw new IllegalStateException("pipelined GET timed out");
+        }
+        return futures;
+    }
+
+    @Benchmark
+    @Override
+    public Object hset() {
+        return sync.hset(Workload.randomHashKey(), "field0", Workload.VALUE);
+    }
+
+    @Benchmark
+    @Override
+    public Object hgetAll() {
+        return sync.hgetall(Workload.randomHashKey());
+    }
+
+    @Benchmark
+    @Override
+    public Object eval() {
+        return sync.evalsha(sha, ScriptOutputType.INTEGER, new String[]{Workload.randomCounterKey()}, "60");
+    }
+}
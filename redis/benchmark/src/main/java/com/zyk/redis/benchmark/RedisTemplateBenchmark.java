@@ -0,0 +1,105 @@
+package com.zyk.redis.benchmark;
+
+import io.lettuce.core.api.StatefulConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spring Data StringRedisTemplate，和hm-dianping用法相同：普通命令走共享的Lettuce连接，
+ * pipeline要独占连接，从commons-pool2连接池借，和配置了spring.redis.lettuce.pool的部署一致
+ * <p>
+ * 没有连接池时每次executePipelined都会新建再关闭一个TCP连接，测到的是建连耗时而不是pipeline
+ */
+@State(Scope.Benchmark)
+public class RedisTemplateBenchmark extends AbstractRedisBenchmark {
+
+    private static final DefaultRedisScript<Long> SCRIPT = new DefaultRedisScript<>(Workload.LUA_SCRIPT, Long.class);
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate template;
+
+    @Setup
+    public void setUp() {
+        Workload.seed();
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+        // 线程数最多64，保证不会等连接，和JedisBenchmark一致
+        poolConfig.setMaxTotal(128);
+        poolConfig.setMaxIdle(128);
+        LettuceClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
+                .poolConfig(poolConfig)
+                .build();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(Workload.HOST, Workload.PORT), clientConfig);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new StringRedisTemplate(connectionFactory);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    @Override
+    public Object get() {
+        return template.opsForValue().get(Workload.randomKey());
+    }
+
+    @Benchmark
+    @Override
+    public Object set() {
+        template.opsForValue().set(Workload.randomKey(), Workload.VALUE);
+        return null;
+    }
+
+    @Benchmark
+    @Override
+    public Object mget() {
+        return template.opsForValue().multiGet(Workload.randomBatchList());
+    }
+
+    @Benchmark
+    @Override
+    public Object pipelinedGet() {
+        String[] keys = Workload.randomBatch();
+        return template.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String key : keys) {
+                stringConnection.get(key);
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    @Override
+    public Object hset() {
+        template.opsForHash().put(Workload.randomHashKey(), "field0", Workload.VALUE);
+        return null;
+    }
+
+    @Benchmark
+    @Override
+    public Object hgetAll() {
+        return template.opsForHash().entries(Workload.randomHashKey());
+    }
+
+    @Benchmark
+    @Override
+    public Object eval() {
+        List<String> keys = Collections.singletonList(Workload.randomCounterKey());
+        return template.execute(SCRIPT, keys, "60");
+    }
+}
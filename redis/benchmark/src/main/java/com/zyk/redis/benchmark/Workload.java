@@ -0,0 +1,102 @@
+package com.zyk.redis.benchmark;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 三种客户端共用的测试数据，key和value完全一样，保证结果可比
+ */
+public final class Workload {
+
+    public static final String HOST = System.getProperty("redis.host", "localhost");
+    public static final int PORT = Integer.getInteger("redis.port", 6379);
+
+    public static final int KEY_COUNT = 10_000;
+    public static final int HASH_COUNT = 1_000;
+    public static final int HASH_FIELDS = 10;
+    public static final int BATCH_SIZE = 100;
+
+    /**
+     * 限流计数器，INCR后第一次设置过期时间
+     */
+    public static final String LUA_SCRIPT = "local v = redis.call('INCR', KEYS[1]) "
+            + "if v == 1 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end return v";
+
+    public static final String VALUE = repeat('v', 100);
+
+    private static final String[] KEYS = new String[KEY_COUNT];
+    private static final String[] HASH_KEYS = new String[HASH_COUNT];
+    private static final String[] COUNTER_KEYS = new String[KEY_COUNT];
+    private static final String[][] BATCHES = new String[KEY_COUNT / BATCH_SIZE][];
+    private static final List<?>[] BATCH_LISTS = new List<?>[BATCHES.length];
+
+    static {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            KEYS[i] = "bench:str:" + i;
+            COUNTER_KEYS[i] = "bench:counter:" + i;
+        }
+        for (int i = 0; i < HASH_COUNT; i++) {
+            HASH_KEYS[i] = "bench:hash:" + i;
+        }
+        for (int i = 0; i < BATCHES.length; i++) {
+            BATCHES[i] = Arrays.copyOfRange(KEYS, i * BATCH_SIZE, (i + 1) * BATCH_SIZE);
+            BATCH_LISTS[i] = Arrays.asList(BATCHES[i]);
+        }
+    }
+
+    private Workload() {
+    }
+
+    public static String randomKey() {
+        return KEYS[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+    }
+
+    public static String randomHashKey() {
+        return HASH_KEYS[ThreadLocalRandom.current().nextInt(HASH_COUNT)];
+    }
+
+    public static String randomCounterKey() {
+        return COUNTER_KEYS[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+    }
+
+    public static String[] randomBatch() {
+        return BATCHES[ThreadLocalRandom.current().nextInt(BATCHES.length)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> randomBatchList() {
+        return (List<String>) BATCH_LISTS[ThreadLocalRandom.current().nextInt(BATCH_LISTS.length)];
+    }
+
+    /**
+     * 写入测试数据，每个基准开始前调用，重复调用无副作用
+     */
+    public static void seed() {
+        try (Jedis jedis = new Jedis(HOST, PORT)) {
+            Pipeline pipeline = jedis.pipelined();
+            for (String key : KEYS) {
+                pipeline.set(key, VALUE);
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < HASH_FIELDS; i++) {
+                fields.put("field" + i, repeat('h', 20));
+            }
+            for (String key : HASH_KEYS) {
+                pipeline.hset(key, fields);
+            }
+            pipeline.sync();
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -1,9 +1,12 @@
 package com.hmdp.controller;
 
 
-import org.springframework.web.bind.annotation.RequestMapping;
+import com.hmdp.dto.Result;
+import com.hmdp.entity.BlogComments;
+import com.hmdp.service.IBlogCommentsService;
+import org.springframework.web.bind.annotation.*;
 
-import org.springframework.web.bind.annotation.RestController;
+import javax.annotation.Resource;
 
 /**
  * <p>
@@ -17,4 +20,42 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/blog-comments")
 public class BlogCommentsController {
 
+    @Resource
+    private IBlogCommentsService blogCommentsService;
+
+    /**
+     * 发表评论或回复
+     * @param comment 评论内容，parentId为空或0时是一级评论
+     * @return 评论id
+     */
+    @PostMapping
+    public Result saveComment(@RequestBody BlogComments comment) {
+        return blogCommentsService.saveComment(comment);
+    }
+
+    /**
+     * 分页查询博文的一级评论，每条附带前几条回复
+     * @param blogId 博文id
+     * @param current 页码
+     * @return 评论列表
+     */
+    @GetMapping("/of/blog/{blogId}")
+    public Result queryCommentsOfBlog(
+            @PathVariable("blogId") Long blogId,
+            @RequestParam(value = "current", defaultValue = "1") Integer current) {
+        return blogCommentsService.queryCommentsOfBlog(blogId, current);
+    }
+
+    /**
+     * 分页查询一级评论下的回复
+     * @param id 一级评论id
+     * @param current 页码
+     * @return 回复列表
+     */
+    @GetMapping("/replies/{id}")
+    public Result queryReplies(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "current", defaultValue = "1") Integer current) {
+        return blogCommentsService.queryReplies(id, current);
+    }
 }
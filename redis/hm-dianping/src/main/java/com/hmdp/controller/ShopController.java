@@ -10,6 +10,9 @@ import com.hmdp.utils.SystemConstants;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 
 /**
  * <p>
@@ -32,8 +35,25 @@ public class ShopController {
      * @return 商铺详情数据
      */
     @GetMapping("/{id}")
-    public Result queryShopById(@PathVariable("id") Long id) {
-        return Result.ok(shopService.getById(id));
+    public Result queryShopById(@PathVariable("id") Long id, HttpServletRequest request) {
+        return shopService.queryById(id, request.getRemoteAddr());
+    }
+
+    /**
+     * 查询商铺的访客数
+     * @param id 商铺id
+     * @param period 统计周期，day、week或month
+     * @param date 周期内的任意一天，格式yyyyMMdd，默认今天
+     * @return 访客数
+     */
+    @GetMapping("/{id}/uv")
+    public Result queryShopUv(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "period", defaultValue = "day") String period,
+            @RequestParam(value = "date", required = false) String date
+    ) {
+        LocalDate day = date == null ? LocalDate.now() : LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE);
+        return shopService.queryUv(id, period, day);
     }
 
     /**
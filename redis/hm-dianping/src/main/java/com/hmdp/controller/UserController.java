@@ -3,14 +3,20 @@ package com.hmdp.controller;
 
 import com.hmdp.dto.LoginFormDTO;
 import com.hmdp.dto.Result;
+import com.hmdp.dto.UserDTO;
 import com.hmdp.entity.UserInfo;
 import com.hmdp.service.IUserInfoService;
+import com.hmdp.service.ISignService;
+import com.hmdp.service.IUserProfileService;
 import com.hmdp.service.IUserService;
+import com.hmdp.utils.UserHolder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpServletRequest;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 
 /**
  * <p>
@@ -31,13 +37,19 @@ public class UserController {
     @Resource
     private IUserInfoService userInfoService;
 
+    @Resource
+    private ISignService signService;
+
+    @Resource
+    private IUserProfileService userProfileService;
+
     /**
      * 发送手机验证码
      */
     @PostMapping("code")
-    public Result sendCode(@RequestParam("phone") String phone, HttpSession session) {
-        // TODO 发送短信验证码并保存验证码
-        return Result.fail("功能未完成");
+    public Result sendCode(@RequestParam("phone") String phone, HttpServletRequest request) {
+        // 发送短信验证码并保存验证码
+        return userService.sendCode(phone, request.getRemoteAddr());
     }
 
     /**
@@ -45,9 +57,9 @@ public class UserController {
      * @param loginForm 登录参数，包含手机号、验证码；或者手机号、密码
      */
     @PostMapping("/login")
-    public Result login(@RequestBody LoginFormDTO loginForm, HttpSession session){
-        // TODO 实现登录功能
-        return Result.fail("功能未完成");
+    public Result login(@RequestBody LoginFormDTO loginForm){
+        // 实现登录功能
+        return userService.login(loginForm);
     }
 
     /**
@@ -55,15 +67,16 @@ public class UserController {
      * @return 无
      */
     @PostMapping("/logout")
-    public Result logout(){
-        // TODO 实现登出功能
-        return Result.fail("功能未完成");
+    public Result logout(@RequestHeader(value = "authorization", required = false) String token){
+        // 实现登出功能
+        return userService.logout(token);
     }
 
     @GetMapping("/me")
     public Result me(){
-        // TODO 获取当前登录的用户并返回
-        return Result.fail("功能未完成");
+        // 获取当前登录的用户并返回
+        UserDTO user = UserHolder.getUser();
+        return Result.ok(user);
     }
 
     @GetMapping("/info/{id}")
@@ -79,4 +92,40 @@ public class UserController {
         // 返回
         return Result.ok(info);
     }
+
+    /**
+     * 个人主页，一次返回用户、详情、是否已关注和最新博文
+     * @param userId 用户id
+     */
+    @GetMapping("/profile/{id}")
+    public Result profile(@PathVariable("id") Long userId){
+        return userProfileService.queryProfile(userId);
+    }
+
+    /**
+     * 今日签到
+     */
+    @PostMapping("/sign")
+    public Result sign(){
+        return signService.sign();
+    }
+
+    /**
+     * 本月截止今天的连续签到天数
+     */
+    @GetMapping("/sign/count")
+    public Result signCount(){
+        return signService.signCount();
+    }
+
+    /**
+     * 某个月的签到天数和签到日期
+     * @param month 月份，格式yyyyMM，默认本月
+     */
+    @GetMapping("/sign/month")
+    public Result signOfMonth(@RequestParam(value = "month", required = false) String month){
+        YearMonth yearMonth = month == null
+                ? YearMonth.now() : YearMonth.parse(month, DateTimeFormatter.ofPattern("yyyyMM"));
+        return signService.signOfMonth(yearMonth);
+    }
 }
@@ -55,6 +55,11 @@ public class Blog implements Serializable {
      */
     @TableField(exist = false)
     private Boolean isLike;
+    /**
+     * 探店的商户
+     */
+    @TableField(exist = false)
+    private Shop shop;
 
     /**
      * 标题
@@ -81,6 +86,11 @@ public class Blog implements Serializable {
      */
     private Integer comments;
 
+    /**
+     * 浏览人数
+     */
+    private Integer views;
+
     /**
      * 创建时间
      */
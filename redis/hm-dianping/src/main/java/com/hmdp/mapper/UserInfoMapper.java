@@ -2,6 +2,10 @@ package com.hmdp.mapper;
 
 import com.hmdp.entity.UserInfo;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * <p>
@@ -13,4 +17,9 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface UserInfoMapper extends BaseMapper<UserInfo> {
 
+    int insertIgnore(@Param("userIds") Collection<Long> userIds);
+
+    int incrFollowCounts(@Param("userIds") Collection<Long> userIds,
+                         @Param("fans") Map<Long, Long> fans,
+                         @Param("followee") Map<Long, Long> followee);
 }
@@ -0,0 +1,23 @@
+package com.hmdp.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.hmdp.dto.Result;
+import com.hmdp.entity.Sign;
+
+import java.time.YearMonth;
+
+/**
+ * <p>
+ *  签到服务类
+ * </p>
+ */
+public interface ISignService extends IService<Sign> {
+
+    Result sign();
+
+    Result signCount();
+
+    Result signOfMonth(YearMonth month);
+
+    void archiveMonth(YearMonth month);
+}
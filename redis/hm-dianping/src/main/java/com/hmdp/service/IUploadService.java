@@ -0,0 +1,18 @@
+package com.hmdp.service;
+
+import com.hmdp.dto.Result;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * <p>
+ *  图片上传服务类
+ * </p>
+ */
+public interface IUploadService {
+
+    Result uploadImage(MultipartFile image);
+
+    Result deleteImage(String filename);
+
+    Result queryStats();
+}
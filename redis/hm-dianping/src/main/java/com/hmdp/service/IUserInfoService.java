@@ -13,4 +13,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface IUserInfoService extends IService<UserInfo> {
 
+    void incrFollowCounts(Long userId, Long followUserId, int delta);
+
+    void flushFollowCounts();
 }
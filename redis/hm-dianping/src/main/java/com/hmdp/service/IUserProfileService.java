@@ -0,0 +1,13 @@
+package com.hmdp.service;
+
+import com.hmdp.dto.Result;
+
+/**
+ * <p>
+ *  个人主页服务类
+ * </p>
+ */
+public interface IUserProfileService {
+
+    Result queryProfile(Long id);
+}
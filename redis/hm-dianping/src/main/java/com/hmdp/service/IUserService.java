@@ -1,6 +1,8 @@
 package com.hmdp.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.hmdp.dto.LoginFormDTO;
+import com.hmdp.dto.Result;
 import com.hmdp.entity.User;
 
 /**
@@ -13,4 +15,9 @@ import com.hmdp.entity.User;
  */
 public interface IUserService extends IService<User> {
 
+    Result sendCode(String phone, String ip);
+
+    Result login(LoginFormDTO loginForm);
+
+    Result logout(String token);
 }
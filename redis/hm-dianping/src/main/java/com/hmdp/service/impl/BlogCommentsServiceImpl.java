@@ -1,11 +1,37 @@
 package com.hmdp.service.impl;
 
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmdp.dto.Result;
 import com.hmdp.entity.BlogComments;
+import com.hmdp.entity.User;
 import com.hmdp.mapper.BlogCommentsMapper;
+import com.hmdp.mapper.BlogMapper;
 import com.hmdp.service.IBlogCommentsService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.service.IUserService;
+import com.hmdp.utils.CounterBuffer;
+import com.hmdp.utils.SystemConstants;
+import com.hmdp.utils.UserHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.hmdp.utils.RedisConstants.CACHE_BLOG_KEY;
+import static com.hmdp.utils.RedisConstants.CACHE_COMMENTS_KEY;
+import static com.hmdp.utils.RedisConstants.CACHE_COMMENTS_TTL;
+
 /**
  * <p>
  *  服务实现类
@@ -14,7 +40,181 @@ import org.springframework.stereotype.Service;
  * @author 虎哥
  * @since 2021-12-22
  */
+@Slf4j
 @Service
 public class BlogCommentsServiceImpl extends ServiceImpl<BlogCommentsMapper, BlogComments> implements IBlogCommentsService {
 
+    private static final String TOTAL_FIELD = "total";
+
+    private static final TypeReference<List<BlogComments>> COMMENT_LIST_TYPE = new TypeReference<List<BlogComments>>() {
+    };
+
+    private final CounterBuffer commentsBuffer = new CounterBuffer();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private IUserService userService;
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    @Override
+    public Result saveComment(BlogComments comment) {
+        if (comment.getBlogId() == null || StrUtil.isBlank(comment.getContent())) {
+            return Result.fail("评论内容不能为空！");
+        }
+        // 获取登录用户
+        comment.setUserId(UserHolder.getUser().getId());
+        if (comment.getParentId() == null || comment.getParentId() == 0) {
+            // 一级评论
+            comment.setParentId(0L);
+            comment.setAnswerId(0L);
+        } else {
+            // 回复必须挂在同一篇博文的一级评论下
+            BlogComments parent = getById(comment.getParentId());
+            if (parent == null || parent.getParentId() != 0 || !parent.getBlogId().equals(comment.getBlogId())) {
+                return Result.fail("回复的评论不存在！");
+            }
+            if (comment.getAnswerId() == null) {
+                comment.setAnswerId(parent.getId());
+            }
+        }
+        comment.setLiked(0);
+        save(comment);
+        // 删除这篇博文的评论缓存，评论数合并写回
+        stringRedisTemplate.delete(CACHE_COMMENTS_KEY + comment.getBlogId());
+        commentsBuffer.add(comment.getBlogId(), 1);
+        return Result.ok(comment.getId());
+    }
+
+    @Override
+    public Result queryCommentsOfBlog(Long blogId, Integer current) {
+        String key = CACHE_COMMENTS_KEY + blogId;
+        String field = current.toString();
+        // 一次读取总数和当前页
+        List<Object> cached = stringRedisTemplate.opsForHash().multiGet(key, Arrays.asList(TOTAL_FIELD, field));
+        List<BlogComments> records = readList((String) cached.get(1));
+        if (cached.get(0) != null && records != null) {
+            return Result.ok(records, Long.valueOf((String) cached.get(0)));
+        }
+        // 分页查询一级评论
+        Page<BlogComments> page = query()
+                .eq("blog_id", blogId).eq("parent_id", 0)
+                .apply("IFNULL(status, 0) < 2")
+                .orderByDesc("create_time")
+                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE));
+        records = page.getRecords();
+        List<BlogComments> all = new ArrayList<>(records);
+        if (!records.isEmpty()) {
+            // 一条语句查询本页所有一级评论的前几条回复
+            List<Long> parentIds = records.stream().map(BlogComments::getId).collect(Collectors.toList());
+            List<BlogComments> replies = getBaseMapper()
+                    .queryFirstReplies(parentIds, SystemConstants.COMMENT_REPLY_PREVIEW_SIZE);
+            Map<Long, List<BlogComments>> repliesMap = replies.stream()
+                    .collect(Collectors.groupingBy(BlogComments::getParentId));
+            for (BlogComments record : records) {
+                record.setReplies(repliesMap.getOrDefault(record.getId(), Collections.emptyList()));
+            }
+            all.addAll(replies);
+        }
+        fillCommentUsers(all);
+        // 写入缓存
+        Map<String, String> entries = new HashMap<>(2);
+        entries.put(TOTAL_FIELD, String.valueOf(page.getTotal()));
+        entries.put(field, writeList(records));
+        stringRedisTemplate.opsForHash().putAll(key, entries);
+        stringRedisTemplate.expire(key, CACHE_COMMENTS_TTL, TimeUnit.MINUTES);
+        return Result.ok(records, page.getTotal());
+    }
+
+    @Override
+    public Result queryReplies(Long commentId, Integer current) {
+        BlogComments parent = getById(commentId);
+        if (parent == null) {
+            return Result.fail("评论不存在！");
+        }
+        // 回复页与一级评论放在同一个hash里，随博文一起失效
+        String key = CACHE_COMMENTS_KEY + parent.getBlogId();
+        String field = StrUtil.format("r:{}:{}", commentId, current);
+        List<BlogComments> records = readList((String) stringRedisTemplate.opsForHash().get(key, field));
+        if (records != null) {
+            return Result.ok(records);
+        }
+        Page<BlogComments> page = query()
+                .eq("parent_id", commentId)
+                .apply("IFNULL(status, 0) < 2")
+                .orderByAsc("create_time", "id")
+                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE, false));
+        records = page.getRecords();
+        fillCommentUsers(records);
+        stringRedisTemplate.opsForHash().put(key, field, writeList(records));
+        stringRedisTemplate.expire(key, CACHE_COMMENTS_TTL, TimeUnit.MINUTES);
+        return Result.ok(records);
+    }
+
+    @Override
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flushCommentCounts() {
+        Map<Long, Long> deltas = commentsBuffer.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            blogMapper.incrComments(deltas);
+            // 评论数变化后删除博文详情缓存
+            stringRedisTemplate.delete(deltas.keySet().stream()
+                    .map(blogId -> CACHE_BLOG_KEY + blogId)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.error("评论数写回失败，等待下次重试", e);
+            commentsBuffer.restore(deltas);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushCommentCounts();
+    }
+
+    private void fillCommentUsers(List<BlogComments> comments) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        // 批量查询评论用户
+        Set<Long> userIds = comments.stream().map(BlogComments::getUserId).collect(Collectors.toSet());
+        Map<Long, User> userMap = userService.listByIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (BlogComments comment : comments) {
+            User user = userMap.get(comment.getUserId());
+            if (user != null) {
+                comment.setName(user.getNickName());
+                comment.setIcon(user.getIcon());
+            }
+        }
+    }
+
+    private List<BlogComments> readList(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, COMMENT_LIST_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("评论缓存解析失败，回源查询", e);
+            return null;
+        }
+    }
+
+    private String writeList(List<BlogComments> comments) {
+        try {
+            return objectMapper.writeValueAsString(comments);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("评论序列化失败", e);
+        }
+    }
 }
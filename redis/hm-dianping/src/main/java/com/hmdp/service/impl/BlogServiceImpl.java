@@ -1,11 +1,55 @@
 package com.hmdp.service.impl;
 
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmdp.dto.Result;
+import com.hmdp.dto.ScrollResult;
+import com.hmdp.dto.UserDTO;
 import com.hmdp.entity.Blog;
+import com.hmdp.entity.Follow;
+import com.hmdp.entity.Shop;
+import com.hmdp.entity.User;
+import com.hmdp.entity.UserInfo;
 import com.hmdp.mapper.BlogMapper;
 import com.hmdp.service.IBlogService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.service.IFollowService;
+import com.hmdp.service.IShopService;
+import com.hmdp.service.IUserInfoService;
+import com.hmdp.service.IUserService;
+import com.hmdp.utils.SystemConstants;
+import com.hmdp.utils.UserHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.hmdp.utils.RedisConstants.*;
+import static com.hmdp.utils.SystemConstants.*;
+
 /**
  * <p>
  *  服务实现类
@@ -14,7 +58,440 @@ import org.springframework.stereotype.Service;
  * @author 虎哥
  * @since 2021-12-22
  */
+@Slf4j
 @Service
 public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IBlogService {
 
+    private static final int VIEW_ROLL_UP_BATCH_SIZE = 500;
+
+    private static final int FEED_PUSH_RETRY_BATCH_SIZE = 100;
+
+    /**
+     * 推送博文到粉丝收件箱的线程池，队列有界；满了不占用发博文的请求线程，推送任务先记到redis，
+     * 由定时任务在线程池有空位时重新提交
+     */
+    private static final ThreadPoolExecutor FEED_PUSH_EXECUTOR = new ThreadPoolExecutor(
+            2, 4, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1024),
+            new NamedThreadFactory("feed-push-", true),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @Resource
+    private IFollowService followService;
+
+    @Resource
+    private IUserService userService;
+
+    @Resource
+    private IUserInfoService userInfoService;
+
+    @Resource
+    private IShopService shopService;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Override
+    public Result saveBlog(Blog blog) {
+        // 获取登录用户
+        UserDTO user = UserHolder.getUser();
+        blog.setUserId(user.getId());
+        // 保存探店博文
+        boolean isSuccess = save(blog);
+        if (!isSuccess) {
+            return Result.fail("新增笔记失败！");
+        }
+        Long userId = user.getId();
+        Long blogId = blog.getId();
+        long timestamp = System.currentTimeMillis();
+        // 删除作者主页的最新博文缓存
+        stringRedisTemplate.delete(CACHE_USER_BLOGS_KEY + userId);
+        // 按用户详情里维护的粉丝数决定推模式还是拉模式，不在发博文时COUNT tb_follow
+        UserInfo info = userInfoService.getById(userId);
+        int fansCount = info == null || info.getFans() == null ? 0 : info.getFans();
+        if (fansCount >= FEED_BIG_V_THRESHOLD) {
+            // 大V只写自己的发件箱，粉丝读取时再合并
+            String outboxKey = FEED_OUTBOX_KEY + userId;
+            stringRedisTemplate.opsForZSet().add(outboxKey, blogId.toString(), timestamp);
+            stringRedisTemplate.opsForZSet().removeRange(outboxKey, 0, -FEED_OUTBOX_MAX_SIZE - 1);
+            stringRedisTemplate.opsForSet().add(FEED_BIG_V_KEY, userId.toString());
+        } else {
+            // 普通作者异步推送到粉丝收件箱，粉丝数降下来的大V顺带把发件箱迁移过去
+            submitPush(userId, blogId, timestamp);
+        }
+        // 返回id
+        return Result.ok(blogId);
+    }
+
+    private void submitPush(Long userId, Long blogId, long timestamp) {
+        try {
+            FEED_PUSH_EXECUTOR.execute(() -> pushToFans(userId, blogId, timestamp));
+        } catch (RejectedExecutionException e) {
+            log.warn("推送线程池已满，稍后重试，blogId：{}", blogId);
+            stringRedisTemplate.opsForList().rightPush(FEED_PUSH_RETRY_KEY,
+                    StrUtil.join(":", userId, blogId, timestamp));
+        }
+    }
+
+    /**
+     * 线程池有空位时重新提交之前被拒绝的推送，每次最多提交一批；再次被拒绝的放回队首等下次
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void retryDeferredPushes() {
+        for (int i = 0; i < FEED_PUSH_RETRY_BATCH_SIZE
+                && FEED_PUSH_EXECUTOR.getQueue().remainingCapacity() > 0; i++) {
+            String task = stringRedisTemplate.opsForList().leftPop(FEED_PUSH_RETRY_KEY);
+            if (task == null) {
+                return;
+            }
+            String[] parts = task.split(":");
+            Long userId = Long.valueOf(parts[0]);
+            Long blogId = Long.valueOf(parts[1]);
+            long timestamp = Long.parseLong(parts[2]);
+            try {
+                FEED_PUSH_EXECUTOR.execute(() -> pushToFans(userId, blogId, timestamp));
+            } catch (RejectedExecutionException e) {
+                stringRedisTemplate.opsForList().leftPush(FEED_PUSH_RETRY_KEY, task);
+                return;
+            }
+        }
+    }
+
+    private void pushToFans(Long userId, Long blogId, long timestamp) {
+        long begin = System.nanoTime();
+        try {
+            // 查询所有粉丝
+            List<Follow> follows = followService.query()
+                    .select("user_id").eq("follow_user_id", userId).list();
+            byte[] member = blogId.toString().getBytes(StandardCharsets.UTF_8);
+            // 分批通过pipeline写入粉丝收件箱
+            for (int from = 0; from < follows.size(); from += FEED_PUSH_BATCH_SIZE) {
+                List<Follow> batch = follows.subList(from, Math.min(from + FEED_PUSH_BATCH_SIZE, follows.size()));
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Follow follow : batch) {
+                        byte[] key = (FEED_KEY + follow.getUserId()).getBytes(StandardCharsets.UTF_8);
+                        connection.zAdd(key, timestamp, member);
+                    }
+                    return null;
+                });
+            }
+            if (BooleanUtil.isTrue(stringRedisTemplate.opsForSet().isMember(FEED_BIG_V_KEY, userId.toString()))) {
+                migrateOutbox(userId, follows);
+            }
+            log.info("博文推送完成，blogId：{}，粉丝数：{}，耗时：{}ms",
+                    blogId, follows.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        } catch (Exception e) {
+            log.error("博文推送失败，blogId：{}", blogId, e);
+        }
+    }
+
+    /**
+     * 粉丝数降到阈值以下的大V改回推模式：发件箱里的博文按原时间戳写入粉丝收件箱，
+     * 写完再移出大V集合、删除发件箱，粉丝读取时不会漏掉之前的博文
+     */
+    private void migrateOutbox(Long userId, List<Follow> follows) {
+        String outboxKey = FEED_OUTBOX_KEY + userId;
+        Set<ZSetOperations.TypedTuple<String>> outbox = stringRedisTemplate.opsForZSet().rangeWithScores(outboxKey, 0, -1);
+        if (outbox != null && !outbox.isEmpty()) {
+            Set<RedisZSetCommands.Tuple> tuples = outbox.stream()
+                    .map(tuple -> new DefaultTuple(tuple.getValue().getBytes(StandardCharsets.UTF_8), tuple.getScore()))
+                    .collect(Collectors.toSet());
+            for (int from = 0; from < follows.size(); from += FEED_PUSH_BATCH_SIZE) {
+                List<Follow> batch = follows.subList(from, Math.min(from + FEED_PUSH_BATCH_SIZE, follows.size()));
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Follow follow : batch) {
+                        connection.zAdd((FEED_KEY + follow.getUserId()).getBytes(StandardCharsets.UTF_8), tuples);
+                    }
+                    return null;
+                });
+            }
+        }
+        stringRedisTemplate.opsForSet().remove(FEED_BIG_V_KEY, userId.toString());
+        stringRedisTemplate.delete(outboxKey);
+        log.info("作者粉丝数低于阈值，发件箱已迁移到粉丝收件箱，userId：{}，博文数：{}",
+                userId, outbox == null ? 0 : outbox.size());
+    }
+
+    @Override
+    public Result queryBlogOfFollow(Long max, Integer offset) {
+        // 获取当前用户
+        Long userId = UserHolder.getUser().getId();
+        int count = SystemConstants.DEFAULT_PAGE_SIZE;
+        // 收件箱，加上关注的大V的发件箱；关注的大V由关注集合和大V集合在redis里求交集
+        List<String> keys = new ArrayList<>();
+        keys.add(FEED_KEY + userId);
+        for (String bigV : followService.queryFollowsIn(userId, FEED_BIG_V_KEY)) {
+            keys.add(FEED_OUTBOX_KEY + bigV);
+        }
+        // 一次pipeline读取所有来源，每个来源最多取 offset + count 条
+        long limit = offset + count;
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.zRevRangeByScoreWithScores(
+                        key.getBytes(StandardCharsets.UTF_8), 0, max, 0, limit);
+            }
+            return null;
+        });
+        // 按时间戳多路归并
+        PriorityQueue<FeedCursor> heads = new PriorityQueue<>(FeedCursor.ORDER);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            Set<ZSetOperations.TypedTuple<String>> tuples = (Set<ZSetOperations.TypedTuple<String>>) result;
+            if (tuples != null && !tuples.isEmpty()) {
+                heads.offer(new FeedCursor(tuples.iterator()));
+            }
+        }
+        List<Long> ids = new ArrayList<>(count);
+        long minTime = 0;
+        int os = 1;
+        int skipped = 0;
+        while (!heads.isEmpty() && ids.size() < count) {
+            FeedCursor cursor = heads.poll();
+            ZSetOperations.TypedTuple<String> tuple = cursor.current;
+            if (cursor.advance()) {
+                heads.offer(cursor);
+            }
+            long time = tuple.getScore().longValue();
+            // 跳过上一页已经返回过的、时间戳等于max的元素
+            if (skipped < offset && time == max) {
+                skipped++;
+                continue;
+            }
+            ids.add(Long.valueOf(tuple.getValue()));
+            if (time == minTime) {
+                os++;
+            } else {
+                minTime = time;
+                os = 1;
+            }
+        }
+        if (ids.isEmpty()) {
+            return Result.ok();
+        }
+        os = minTime == max ? os + offset : os;
+        // 根据id查询blog，保持归并后的顺序
+        Map<Long, Blog> blogMap = listByIds(ids).stream()
+                .collect(Collectors.toMap(Blog::getId, Function.identity()));
+        List<Blog> blogs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Blog blog = blogMap.get(id);
+            if (blog != null) {
+                blogs.add(blog);
+            }
+        }
+        fillBlogUsers(blogs);
+        // 封装并返回
+        ScrollResult r = new ScrollResult();
+        r.setList(blogs);
+        r.setOffset(os);
+        r.setMinTime(minTime);
+        return Result.ok(r);
+    }
+
+    @Override
+    public Result queryBlogById(Long id, String visitor) {
+        String key = CACHE_BLOG_KEY + id;
+        // 从redis查询博文详情缓存
+        String json = stringRedisTemplate.opsForValue().get(key);
+        Blog blog;
+        if (StrUtil.isNotBlank(json)) {
+            blog = readBlog(json);
+        } else if (json != null) {
+            // 命中空值
+            return Result.fail("笔记不存在！");
+        } else {
+            blog = getById(id);
+            if (blog == null) {
+                // 缓存空值，防止缓存穿透
+                stringRedisTemplate.opsForValue().set(key, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
+                return Result.fail("笔记不存在！");
+            }
+            // 批量补充作者和商户
+            List<Blog> blogs = Collections.singletonList(blog);
+            fillBlogUsers(blogs);
+            fillBlogShops(blogs);
+            stringRedisTemplate.opsForValue().set(key, writeBlog(blog), CACHE_BLOG_TTL, TimeUnit.MINUTES);
+        }
+        // 记录访客
+        recordView(id, visitor);
+        return Result.ok(blog);
+    }
+
+    /**
+     * 访客写入当天的HyperLogLog，并登记当天被访问过的博文，一次pipeline往返；
+     * 两个key都设置过期时间，汇总任务没有跑或者失败时也不会一直留在redis里
+     */
+    private void recordView(Long blogId, String visitor) {
+        UserDTO user = UserHolder.getUser();
+        String visitorId = user != null ? user.getId().toString() : "ip:" + visitor;
+        String day = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        byte[] uvKey = (BLOG_UV_KEY + blogId + ":" + day).getBytes(StandardCharsets.UTF_8);
+        byte[] activeKey = (BLOG_UV_ACTIVE_KEY + day).getBytes(StandardCharsets.UTF_8);
+        byte[] visitorBytes = visitorId.getBytes(StandardCharsets.UTF_8);
+        byte[] blogIdBytes = blogId.toString().getBytes(StandardCharsets.UTF_8);
+        long ttl = TimeUnit.DAYS.toSeconds(BLOG_UV_DAY_TTL);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.pfAdd(uvKey, visitorBytes);
+            connection.expire(uvKey, ttl);
+            connection.sAdd(activeKey, blogIdBytes);
+            connection.expire(activeKey, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public Result likeBlog(Long id) {
+        // 修改点赞数量
+        update().setSql("liked = liked + 1").eq("id", id).update();
+        stringRedisTemplate.delete(CACHE_BLOG_KEY + id);
+        return Result.ok();
+    }
+
+    @Override
+    public Result queryHotBlog(Integer current) {
+        // 根据用户查询
+        Page<Blog> page = query()
+                .orderByDesc("liked")
+                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE));
+        // 获取当前页数据
+        List<Blog> records = page.getRecords();
+        // 批量查询用户
+        fillBlogUsers(records);
+        return Result.ok(records);
+    }
+
+    /**
+     * 每天凌晨把前一天的访客HyperLogLog合并到博文总的HyperLogLog，并把总数写回tb_blog
+     */
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void rollUpYesterdayViews() {
+        rollUpViews(LocalDate.now().minusDays(1));
+    }
+
+    @Override
+    public void rollUpViews(LocalDate day) {
+        String dayStr = day.format(DateTimeFormatter.BASIC_ISO_DATE);
+        String activeKey = BLOG_UV_ACTIVE_KEY + dayStr;
+        List<Long> blogIds = new ArrayList<>(VIEW_ROLL_UP_BATCH_SIZE);
+        int total = 0;
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                .scan(activeKey, ScanOptions.scanOptions().count(VIEW_ROLL_UP_BATCH_SIZE).build())) {
+            while (cursor.hasNext()) {
+                blogIds.add(Long.valueOf(cursor.next()));
+                if (blogIds.size() >= VIEW_ROLL_UP_BATCH_SIZE) {
+                    total += rollUpViews(blogIds, dayStr);
+                    blogIds.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("扫描当日访问的博文失败", e);
+        }
+        if (!blogIds.isEmpty()) {
+            total += rollUpViews(blogIds, dayStr);
+        }
+        stringRedisTemplate.delete(activeKey);
+        log.info("博文浏览量汇总完成，日期：{}，博文数：{}", dayStr, total);
+    }
+
+    private int rollUpViews(List<Long> blogIds, String day) {
+        // 合并当天的HyperLogLog到总的HyperLogLog
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long blogId : blogIds) {
+                byte[] totalKey = (BLOG_UV_KEY + blogId).getBytes(StandardCharsets.UTF_8);
+                byte[] dayKey = (BLOG_UV_KEY + blogId + ":" + day).getBytes(StandardCharsets.UTF_8);
+                connection.pfMerge(totalKey, totalKey, dayKey);
+                connection.del(dayKey);
+            }
+            return null;
+        });
+        // 批量统计总数
+        List<Object> counts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long blogId : blogIds) {
+                connection.pfCount((BLOG_UV_KEY + blogId).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        Map<Long, Long> views = new HashMap<>(blogIds.size());
+        List<String> cacheKeys = new ArrayList<>(blogIds.size());
+        for (int i = 0; i < blogIds.size(); i++) {
+            views.put(blogIds.get(i), (Long) counts.get(i));
+            cacheKeys.add(CACHE_BLOG_KEY + blogIds.get(i));
+        }
+        // 一条语句写回，并删除详情缓存
+        getBaseMapper().updateViews(views);
+        stringRedisTemplate.delete(cacheKeys);
+        return views.size();
+    }
+
+    private void fillBlogShops(List<Blog> blogs) {
+        // 批量查询商户
+        Set<Long> shopIds = blogs.stream().map(Blog::getShopId).collect(Collectors.toSet());
+        Map<Long, Shop> shopMap = shopService.listByIds(shopIds).stream()
+                .collect(Collectors.toMap(Shop::getId, Function.identity()));
+        for (Blog blog : blogs) {
+            blog.setShop(shopMap.get(blog.getShopId()));
+        }
+    }
+
+    private Blog readBlog(String json) {
+        try {
+            return objectMapper.readValue(json, Blog.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("博文缓存解析失败", e);
+        }
+    }
+
+    private String writeBlog(Blog blog) {
+        try {
+            return objectMapper.writeValueAsString(blog);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("博文序列化失败", e);
+        }
+    }
+
+    private void fillBlogUsers(List<Blog> blogs) {
+        if (blogs.isEmpty()) {
+            return;
+        }
+        // 批量查询作者
+        Set<Long> userIds = blogs.stream().map(Blog::getUserId).collect(Collectors.toSet());
+        Map<Long, User> userMap = userService.listByIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Blog blog : blogs) {
+            User user = userMap.get(blog.getUserId());
+            if (user != null) {
+                blog.setName(user.getNickName());
+                blog.setIcon(user.getIcon());
+            }
+        }
+    }
+
+    /**
+     * 多路归并时某一个来源的读取位置
+     */
+    private static class FeedCursor {
+        private static final Comparator<FeedCursor> ORDER = Comparator
+                .comparingDouble((FeedCursor c) -> c.current.getScore())
+                .thenComparing(c -> c.current.getValue())
+                .reversed();
+
+        private final Iterator<ZSetOperations.TypedTuple<String>> iterator;
+        private ZSetOperations.TypedTuple<String> current;
+
+        FeedCursor(Iterator<ZSetOperations.TypedTuple<String>> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+    }
 }
@@ -1,11 +1,33 @@
 package com.hmdp.service.impl;
 
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.BooleanUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.hmdp.dto.Result;
+import com.hmdp.dto.UserDTO;
 import com.hmdp.entity.Follow;
 import com.hmdp.mapper.FollowMapper;
 import com.hmdp.service.IFollowService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.service.IUserInfoService;
+import com.hmdp.service.IUserService;
+import com.hmdp.utils.UserHolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.hmdp.utils.RedisConstants.CACHE_NULL_TTL;
+import static com.hmdp.utils.RedisConstants.FOLLOW_KEY;
+
 /**
  * <p>
  *  服务实现类
@@ -17,4 +39,126 @@ import org.springframework.stereotype.Service;
 @Service
 public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> implements IFollowService {
 
+    /**
+     * 没有关注任何人时集合里只放这个空串，和商铺缓存空值一样防止缓存穿透；不是合法的用户id
+     */
+    private static final String EMPTY_FOLLOWS_MEMBER = "";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private IUserService userService;
+
+    @Resource
+    private IUserInfoService userInfoService;
+
+    @Override
+    public Result follow(Long followUserId, Boolean isFollow) {
+        // 获取登录用户
+        Long userId = UserHolder.getUser().getId();
+        String key = FOLLOW_KEY + userId;
+        if (BooleanUtil.isTrue(isFollow)) {
+            // 关注前先保证集合与数据库一致，避免只写入一个元素
+            if (isFollowing(userId, followUserId)) {
+                return Result.ok();
+            }
+            Follow follow = new Follow();
+            follow.setUserId(userId);
+            follow.setFollowUserId(followUserId);
+            try {
+                save(follow);
+            } catch (DuplicateKeyException e) {
+                // 并发重复关注，唯一索引已拦截
+                return Result.ok();
+            }
+            stringRedisTemplate.opsForSet().add(key, followUserId.toString());
+            userInfoService.incrFollowCounts(userId, followUserId, 1);
+        } else {
+            // 取关，删除 delete from tb_follow where user_id = ? and follow_user_id = ?
+            boolean isSuccess = remove(new QueryWrapper<Follow>()
+                    .eq("user_id", userId).eq("follow_user_id", followUserId));
+            if (isSuccess) {
+                stringRedisTemplate.opsForSet().remove(key, followUserId.toString());
+                userInfoService.incrFollowCounts(userId, followUserId, -1);
+            }
+        }
+        return Result.ok();
+    }
+
+    @Override
+    public Result isFollow(Long followUserId) {
+        // 获取登录用户
+        Long userId = UserHolder.getUser().getId();
+        return Result.ok(isFollowing(userId, followUserId));
+    }
+
+    @Override
+    public Result followCommons(Long id) {
+        // 获取当前用户
+        Long userId = UserHolder.getUser().getId();
+        loadFollowsIfAbsent(id);
+        // 求交集
+        Set<String> intersect = queryFollowsIn(userId, FOLLOW_KEY + id);
+        if (intersect.isEmpty()) {
+            return Result.ok(Collections.emptyList());
+        }
+        // 解析id集合，批量查询用户
+        List<Long> ids = intersect.stream().map(Long::valueOf).collect(Collectors.toList());
+        List<UserDTO> users = userService.listByIds(ids)
+                .stream()
+                .map(user -> BeanUtil.copyProperties(user, UserDTO.class))
+                .collect(Collectors.toList());
+        return Result.ok(users);
+    }
+
+    @Override
+    public Set<String> queryFollowsIn(Long userId, String key) {
+        loadFollowsIfAbsent(userId);
+        Set<String> intersect = stringRedisTemplate.opsForSet().intersect(FOLLOW_KEY + userId, key);
+        if (intersect == null) {
+            return Collections.emptySet();
+        }
+        intersect.remove(EMPTY_FOLLOWS_MEMBER);
+        return intersect;
+    }
+
+    private boolean isFollowing(Long userId, Long followUserId) {
+        String key = FOLLOW_KEY + userId;
+        Boolean isMember = stringRedisTemplate.opsForSet().isMember(key, followUserId.toString());
+        if (BooleanUtil.isTrue(isMember)) {
+            return true;
+        }
+        if (BooleanUtil.isTrue(stringRedisTemplate.hasKey(key))) {
+            return false;
+        }
+        // 缓存中没有该用户的关注集合，从数据库重建
+        return loadFollowsIfAbsent(userId).contains(followUserId.toString());
+    }
+
+    /**
+     * 关注集合不存在时从tb_follow重建，返回数据库中的关注列表；
+     * 没有关注时写入空串并设置短过期时间，之后关注时直接加入集合，过期后再从数据库重建
+     */
+    private Set<String> loadFollowsIfAbsent(Long userId) {
+        String key = FOLLOW_KEY + userId;
+        if (BooleanUtil.isTrue(stringRedisTemplate.hasKey(key))) {
+            return Collections.emptySet();
+        }
+        Set<String> followIds = query().select("follow_user_id").eq("user_id", userId).list()
+                .stream()
+                .map(follow -> follow.getFollowUserId().toString())
+                .collect(Collectors.toSet());
+        if (!followIds.isEmpty()) {
+            stringRedisTemplate.opsForSet().add(key, followIds.toArray(new String[0]));
+        } else {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.sAdd(rawKey, EMPTY_FOLLOWS_MEMBER.getBytes(StandardCharsets.UTF_8));
+                connection.expire(rawKey, TimeUnit.MINUTES.toSeconds(CACHE_NULL_TTL));
+                return null;
+            });
+        }
+        return followIds;
+    }
 }
@@ -1,11 +1,33 @@
 package com.hmdp.service.impl;
 
+import com.hmdp.dto.Result;
+import com.hmdp.dto.UserDTO;
 import com.hmdp.entity.Shop;
 import com.hmdp.mapper.ShopMapper;
 import com.hmdp.service.IShopService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.utils.SystemConstants;
+import com.hmdp.utils.UserHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hmdp.utils.RedisConstants.*;
+
 /**
  * <p>
  *  服务实现类
@@ -14,7 +36,146 @@ import org.springframework.stereotype.Service;
  * @author 虎哥
  * @since 2021-12-22
  */
+@Slf4j
 @Service
 public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IShopService {
 
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * 待写入的访客记录，元素为 {uvKey, visitorId}，查询线程只负责入队
+     */
+    private final BlockingQueue<String[]> visits = new ArrayBlockingQueue<>(SystemConstants.SHOP_UV_QUEUE_SIZE);
+
+    private final AtomicLong droppedVisits = new AtomicLong();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public Result queryById(Long id, String visitor) {
+        Shop shop = getById(id);
+        if (shop == null) {
+            return Result.fail("店铺不存在！");
+        }
+        // 记录访客，不等待redis
+        recordVisit(id, visitor);
+        return Result.ok(shop);
+    }
+
+    @Override
+    public Result queryUv(Long id, String period, LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (date.isAfter(today)) {
+            return Result.fail("日期不能晚于今天！");
+        }
+        LocalDate begin;
+        LocalDate end;
+        String reportKey;
+        if ("day".equals(period)) {
+            begin = end = date;
+            reportKey = null;
+        } else if ("week".equals(period)) {
+            begin = date.with(DayOfWeek.MONDAY);
+            end = begin.plusDays(6);
+            reportKey = SHOP_UV_KEY + id + ":w:" + begin.format(DateTimeFormatter.BASIC_ISO_DATE);
+        } else if ("month".equals(period)) {
+            begin = date.withDayOfMonth(1);
+            end = date.withDayOfMonth(date.lengthOfMonth());
+            reportKey = SHOP_UV_KEY + id + ":m:" + date.format(MONTH_FORMATTER);
+        } else {
+            return Result.fail("统计周期只能是day、week或month！");
+        }
+        Long uv;
+        if (reportKey == null) {
+            // 单日直接统计
+            uv = stringRedisTemplate.opsForHyperLogLog().size(uvKey(id, date));
+        } else {
+            uv = mergeUv(id, reportKey, begin, end.isAfter(today) ? today : end, !end.isBefore(today));
+        }
+        Map<String, Object> data = new LinkedHashMap<>(4);
+        data.put("shopId", id);
+        data.put("begin", begin.toString());
+        data.put("end", end.toString());
+        data.put("uv", uv == null ? 0 : uv);
+        return Result.ok(data);
+    }
+
+    /**
+     * 把每天的访客合并成周、月统计，合并结果本身就是缓存
+     */
+    private Long mergeUv(Long id, String reportKey, LocalDate begin, LocalDate end, boolean ongoing) {
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(reportKey))) {
+            return stringRedisTemplate.opsForHyperLogLog().size(reportKey);
+        }
+        List<String> dayKeys = new ArrayList<>();
+        for (LocalDate day = begin; !day.isAfter(end); day = day.plusDays(1)) {
+            dayKeys.add(uvKey(id, day));
+        }
+        // PFMERGE reportKey dayKeys...
+        Long uv = stringRedisTemplate.opsForHyperLogLog().union(reportKey, dayKeys.toArray(new String[0]));
+        // 还没结束的周期只缓存几分钟，结束了的周期不会再变化
+        if (ongoing) {
+            stringRedisTemplate.expire(reportKey, SHOP_UV_REPORT_TTL, TimeUnit.MINUTES);
+        } else {
+            stringRedisTemplate.expire(reportKey, SHOP_UV_TTL, TimeUnit.DAYS);
+        }
+        return uv;
+    }
+
+    private void recordVisit(Long shopId, String visitor) {
+        UserDTO user = UserHolder.getUser();
+        String visitorId = user != null ? user.getId().toString() : "ip:" + visitor;
+        if (!visits.offer(new String[]{uvKey(shopId, LocalDate.now()), visitorId})) {
+            // 队列满了说明redis跟不上，统计允许少量丢失
+            droppedVisits.incrementAndGet();
+        }
+    }
+
+    /**
+     * 定时把缓冲的访客按小批量pipeline写入HyperLogLog
+     */
+    @Scheduled(fixedDelay = 200)
+    public void flushVisits() {
+        List<String[]> batch = new ArrayList<>(SystemConstants.SHOP_UV_BATCH_SIZE);
+        while (visits.drainTo(batch, SystemConstants.SHOP_UV_BATCH_SIZE) > 0) {
+            try {
+                writeVisits(batch);
+            } catch (Exception e) {
+                log.error("店铺访客写入失败，丢弃{}条记录", batch.size(), e);
+            }
+            batch.clear();
+        }
+        long dropped = droppedVisits.getAndSet(0);
+        if (dropped > 0) {
+            log.warn("店铺访客队列已满，丢弃{}条记录", dropped);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushVisits();
+    }
+
+    private void writeVisits(List<String[]> batch) {
+        // 同一个key的访客合并成一条PFADD
+        Map<String, List<byte[]>> grouped = new HashMap<>();
+        for (String[] visit : batch) {
+            grouped.computeIfAbsent(visit[0], k -> new ArrayList<>())
+                    .add(visit[1].getBytes(StandardCharsets.UTF_8));
+        }
+        long ttl = TimeUnit.DAYS.toSeconds(SHOP_UV_TTL);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, List<byte[]>> entry : grouped.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                connection.pfAdd(key, entry.getValue().toArray(new byte[0][]));
+                connection.expire(key, ttl);
+            }
+            return null;
+        });
+    }
+
+    private String uvKey(Long shopId, LocalDate day) {
+        return SHOP_UV_KEY + shopId + ":" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
 }
@@ -0,0 +1,181 @@
+package com.hmdp.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.dto.Result;
+import com.hmdp.entity.Sign;
+import com.hmdp.mapper.SignMapper;
+import com.hmdp.service.ISignService;
+import com.hmdp.utils.UserHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hmdp.utils.RedisConstants.USER_SIGN_KEY;
+
+/**
+ * <p>
+ *  签到服务实现类，当月签到存在redis位图中，每月一个key，过期的月份归档到tb_sign
+ * </p>
+ */
+@Slf4j
+@Service
+public class SignServiceImpl extends ServiceImpl<SignMapper, Sign> implements ISignService {
+
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final int ARCHIVE_BATCH_SIZE = 500;
+
+    /**
+     * 整月的位图按无符号31位整数读取，1号在最高位
+     */
+    private static final BitFieldSubCommands MONTH_BITS = BitFieldSubCommands.create()
+            .get(BitFieldSubCommands.BitFieldType.unsigned(31)).valueAt(0);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public Result sign() {
+        // 获取当前登录用户
+        Long userId = UserHolder.getUser().getId();
+        // 获取日期，拼接key
+        LocalDate now = LocalDate.now();
+        String key = signKey(userId, YearMonth.from(now));
+        // 写入redis SETBIT key offset 1
+        stringRedisTemplate.opsForValue().setBit(key, now.getDayOfMonth() - 1, true);
+        return Result.ok();
+    }
+
+    @Override
+    public Result signCount() {
+        // 获取当前登录用户
+        Long userId = UserHolder.getUser().getId();
+        LocalDate now = LocalDate.now();
+        String key = signKey(userId, YearMonth.from(now));
+        // 获取本月截止今天为止的所有的签到记录，返回的是一个十进制的数字 BITFIELD key GET u{day} 0
+        int dayOfMonth = now.getDayOfMonth();
+        List<Long> result = stringRedisTemplate.opsForValue().bitField(key,
+                BitFieldSubCommands.create()
+                        .get(BitFieldSubCommands.BitFieldType.unsigned(dayOfMonth)).valueAt(0));
+        if (result == null || result.isEmpty() || result.get(0) == null) {
+            return Result.ok(0);
+        }
+        // 今天在最低位，末尾连续的1就是连续签到天数
+        long num = result.get(0);
+        return Result.ok(Long.numberOfTrailingZeros(~num));
+    }
+
+    @Override
+    public Result signOfMonth(YearMonth month) {
+        Long userId = UserHolder.getUser().getId();
+        List<Long> result = stringRedisTemplate.opsForValue().bitField(signKey(userId, month), MONTH_BITS);
+        long bits = result == null || result.isEmpty() || result.get(0) == null ? 0 : result.get(0);
+        if (bits == 0 && month.isBefore(YearMonth.now())) {
+            // 以前的月份已经归档到数据库
+            Sign sign = query().eq("user_id", userId)
+                    .eq("year", month.getYear()).eq("month", month.getMonthValue()).one();
+            bits = sign == null ? 0 : sign.getBits();
+        }
+        List<Integer> days = new ArrayList<>();
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            if ((bits >>> (31 - day) & 1) == 1) {
+                days.add(day);
+            }
+        }
+        Map<String, Object> data = new LinkedHashMap<>(2);
+        data.put("count", Long.bitCount(bits));
+        data.put("days", days);
+        return Result.ok(data);
+    }
+
+    /**
+     * 每天夜里把上个月的签到位图归档到数据库，每个用户每月4个字节
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void archiveLastMonth() {
+        archiveMonth(YearMonth.now().minusMonths(1));
+    }
+
+    @Override
+    public void archiveMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("只能归档已经结束的月份");
+        }
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(USER_SIGN_KEY + "*:" + month.format(MONTH_FORMATTER))
+                .count(ARCHIVE_BATCH_SIZE)
+                .build();
+        Integer total = stringRedisTemplate.execute((RedisCallback<Integer>) connection -> {
+            int count = 0;
+            List<String> keys = new ArrayList<>(ARCHIVE_BATCH_SIZE);
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(new String(cursor.next(), StandardCharsets.UTF_8));
+                    if (keys.size() >= ARCHIVE_BATCH_SIZE) {
+                        count += archiveBatch(keys, month);
+                        keys.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("扫描签到记录失败", e);
+            }
+            if (!keys.isEmpty()) {
+                count += archiveBatch(keys, month);
+            }
+            return count;
+        });
+        log.info("签到归档完成，月份：{}，用户数：{}", month, total);
+    }
+
+    private int archiveBatch(List<String> keys, YearMonth month) {
+        // 一次pipeline读出整月位图
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.bitField(key.getBytes(StandardCharsets.UTF_8), MONTH_BITS);
+            }
+            return null;
+        });
+        List<Sign> signs = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            @SuppressWarnings("unchecked")
+            List<Long> bits = (List<Long>) results.get(i);
+            if (bits == null || bits.isEmpty() || bits.get(0) == null || bits.get(0) == 0) {
+                continue;
+            }
+            // key格式 sign:{userId}:{yyyyMM}
+            String key = keys.get(i);
+            String userId = key.substring(USER_SIGN_KEY.length(), key.lastIndexOf(':'));
+            signs.add(new Sign()
+                    .setUserId(Long.valueOf(userId))
+                    .setYear(month.getYear())
+                    .setMonth(month.getMonthValue())
+                    .setBits(bits.get(0).intValue()));
+        }
+        // 先落库，再删除redis中的位图
+        if (!signs.isEmpty()) {
+            getBaseMapper().upsertBatch(signs);
+        }
+        stringRedisTemplate.delete(keys);
+        return signs.size();
+    }
+
+    private String signKey(Long userId, YearMonth month) {
+        return USER_SIGN_KEY + userId + ":" + month.format(MONTH_FORMATTER);
+    }
+}
@@ -0,0 +1,233 @@
+package com.hmdp.service.impl;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import com.hmdp.dto.Result;
+import com.hmdp.service.IUploadService;
+import com.hmdp.utils.SystemConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hmdp.utils.RedisConstants.UPLOAD_IMAGE_INDEX_KEY;
+import static com.hmdp.utils.RedisConstants.UPLOAD_IMAGE_REFS_KEY;
+
+/**
+ * <p>
+ *  图片上传服务实现类，按内容hash存储，相同图片只保存一份
+ * </p>
+ */
+@Slf4j
+@Service
+public class UploadServiceImpl implements IUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> INDEX_KEYS = Arrays.asList(UPLOAD_IMAGE_INDEX_KEY, UPLOAD_IMAGE_REFS_KEY);
+
+    private static final DefaultRedisScript<String> INDEX_SCRIPT;
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT;
+
+    static {
+        INDEX_SCRIPT = new DefaultRedisScript<>();
+        INDEX_SCRIPT.setLocation(new ClassPathResource("lua/image_index.lua"));
+        INDEX_SCRIPT.setResultType(String.class);
+        RELEASE_SCRIPT = new DefaultRedisScript<>();
+        RELEASE_SCRIPT.setLocation(new ClassPathResource("lua/image_release.lua"));
+        RELEASE_SCRIPT.setResultType(Long.class);
+    }
+
+    /**
+     * 生成缩略图的线程池，队列有界，满了直接放弃，缩略图可以缺失
+     */
+    private static final ExecutorService THUMBNAIL_EXECUTOR = new ThreadPoolExecutor(
+            1, 2, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256),
+            new NamedThreadFactory("thumbnail-", true),
+            (r, executor) -> log.warn("缩略图队列已满，放弃本次生成"));
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong dedupHits = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong nanosSpent = new AtomicLong();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public Result uploadImage(MultipartFile image) {
+        long begin = System.nanoTime();
+        // 获取后缀，调用方已经校验过文件名有合法的扩展名
+        String suffix = FileUtil.extName(image.getOriginalFilename()).toLowerCase();
+        File root = new File(SystemConstants.IMAGE_UPLOAD_DIR, "blogs");
+        if (!root.exists()) {
+            root.mkdirs();
+        }
+        Path tmp = null;
+        try {
+            // 边写临时文件边计算hash，只读一遍上传流
+            tmp = Files.createTempFile(root.toPath(), "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(image.getInputStream());
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        size += out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            String hash = HexUtil.encodeHexStr(digest.digest());
+            // 生成文件名，按hash前两位分目录
+            String fileName = StrUtil.format("/blogs/{}/{}/{}.{}", hash.charAt(0), hash.charAt(1), hash, suffix);
+            // 登记到hash索引，相同内容返回已有的文件名
+            String storedName = stringRedisTemplate.execute(INDEX_SCRIPT, INDEX_KEYS, hash, fileName);
+            File target = new File(SystemConstants.IMAGE_UPLOAD_DIR, storedName);
+            if (moveTo(tmp, target)) {
+                THUMBNAIL_EXECUTOR.execute(() -> createThumbnail(target));
+            } else {
+                // 重复图片，丢弃本次写入
+                Files.delete(tmp);
+                dedupHits.incrementAndGet();
+                bytesSaved.addAndGet(size);
+            }
+            tmp = null;
+            long nanos = System.nanoTime() - begin;
+            uploads.incrementAndGet();
+            bytesReceived.addAndGet(size);
+            nanosSpent.addAndGet(nanos);
+            // 返回结果
+            log.debug("文件上传成功，{}，大小：{}字节，耗时：{}ms", storedName, size, TimeUnit.NANOSECONDS.toMillis(nanos));
+            return Result.ok(storedName);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("文件上传失败", e);
+        } finally {
+            if (tmp != null) {
+                FileUtil.del(tmp.toFile());
+            }
+        }
+    }
+
+    @Override
+    public Result deleteImage(String filename) {
+        File file = new File(SystemConstants.IMAGE_UPLOAD_DIR, filename);
+        if (file.isDirectory()) {
+            return Result.fail("错误的文件名称");
+        }
+        String hash = FileUtil.mainName(file);
+        if (hash.matches("[0-9a-f]{64}")) {
+            // 内容寻址的图片，引用归零才真正删除
+            Long released = stringRedisTemplate.execute(RELEASE_SCRIPT, INDEX_KEYS, hash);
+            if (released == null || released == 0) {
+                return Result.ok();
+            }
+            FileUtil.del(thumbnailOf(file));
+        }
+        FileUtil.del(file);
+        return Result.ok();
+    }
+
+    @Override
+    public Result queryStats() {
+        long received = bytesReceived.get();
+        long nanos = nanosSpent.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("uploads", uploads.get());
+        stats.put("dedupHits", dedupHits.get());
+        stats.put("bytesReceived", received);
+        stats.put("bytesSaved", bytesSaved.get());
+        stats.put("throughputMBps", nanos == 0 ? 0 : received / (nanos / 1e9) / (1024 * 1024));
+        return Result.ok(stats);
+    }
+
+    /**
+     * 把临时文件放到目标位置，目标已存在（并发上传相同图片）时返回false，临时文件留给调用方删除
+     * <p>
+     * ATOMIC_MOVE在POSIX上会直接覆盖已有文件，不会抛FileAlreadyExistsException；
+     * 创建硬链接在目标存在时一定失败，判断和创建是一步原子操作
+     */
+    private boolean moveTo(Path tmp, File target) throws IOException {
+        FileUtil.mkParentDirs(target);
+        try {
+            Files.createLink(target.toPath(), tmp);
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            // 文件系统不支持硬链接，退回到不覆盖的移动，目标存在时抛FileAlreadyExistsException
+            try {
+                Files.move(tmp, target.toPath());
+                return true;
+            } catch (FileAlreadyExistsException exists) {
+                return false;
+            }
+        }
+        Files.delete(tmp);
+        return true;
+    }
+
+    private void createThumbnail(File source) {
+        String suffix = FileUtil.extName(source);
+        if (!ImageIO.getImageWritersBySuffix(suffix).hasNext()) {
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(source);
+            if (image == null) {
+                return;
+            }
+            int width = Math.min(SystemConstants.THUMBNAIL_WIDTH, image.getWidth());
+            int height = Math.max(1, image.getHeight() * width / image.getWidth());
+            int type = image.getColorModel().hasAlpha() && !"jpg".equals(suffix) && !"jpeg".equals(suffix)
+                    ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+            BufferedImage thumbnail = new BufferedImage(width, height, type);
+            Graphics2D g = thumbnail.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+            g.dispose();
+            ImageIO.write(thumbnail, suffix, thumbnailOf(source));
+        } catch (IOException e) {
+            log.warn("缩略图生成失败，{}", source, e);
+        }
+    }
+
+    private File thumbnailOf(File file) {
+        return new File(file.getParentFile(), FileUtil.mainName(file) + "_thumb." + FileUtil.extName(file));
+    }
+}
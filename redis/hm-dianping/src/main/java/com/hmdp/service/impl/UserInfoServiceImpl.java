@@ -4,8 +4,22 @@ import com.hmdp.entity.UserInfo;
 import com.hmdp.mapper.UserInfoMapper;
 import com.hmdp.service.IUserInfoService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.utils.CounterBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.hmdp.utils.RedisConstants.CACHE_USER_INFO_KEY;
+
 /**
  * <p>
  *  服务实现类
@@ -14,7 +28,57 @@ import org.springframework.stereotype.Service;
  * @author 虎哥
  * @since 2021-12-24
  */
+@Slf4j
 @Service
 public class UserInfoServiceImpl extends ServiceImpl<UserInfoMapper, UserInfo> implements IUserInfoService {
 
+    private final CounterBuffer fansBuffer = new CounterBuffer();
+    private final CounterBuffer followeeBuffer = new CounterBuffer();
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void incrFollowCounts(Long userId, Long followUserId, int delta) {
+        // 只累加内存增量，由定时任务合并写回
+        followeeBuffer.add(userId, delta);
+        fansBuffer.add(followUserId, delta);
+    }
+
+    @Override
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flushFollowCounts() {
+        Map<Long, Long> fans = fansBuffer.drain();
+        Map<Long, Long> followee = followeeBuffer.drain();
+        Set<Long> userIds = new HashSet<>(fans.keySet());
+        userIds.addAll(followee.keySet());
+        if (userIds.isEmpty()) {
+            return;
+        }
+        // CASE WHEN 需要每个用户都有一个分支，没有变化的补0
+        Map<Long, Long> fansDeltas = new HashMap<>(fans);
+        Map<Long, Long> followeeDeltas = new HashMap<>(followee);
+        for (Long userId : userIds) {
+            fansDeltas.putIfAbsent(userId, 0L);
+            followeeDeltas.putIfAbsent(userId, 0L);
+        }
+        try {
+            // 没有详情的用户先补一行，再一条语句批量更新
+            getBaseMapper().insertIgnore(userIds);
+            getBaseMapper().incrFollowCounts(userIds, fansDeltas, followeeDeltas);
+            // 计数变化后删除用户详情缓存
+            stringRedisTemplate.delete(userIds.stream()
+                    .map(userId -> CACHE_USER_INFO_KEY + userId)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.error("关注计数写回失败，等待下次重试", e);
+            fansBuffer.restore(fans);
+            followeeBuffer.restore(followee);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushFollowCounts();
+    }
 }
@@ -0,0 +1,239 @@
+package com.hmdp.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmdp.dto.Result;
+import com.hmdp.dto.UserDTO;
+import com.hmdp.entity.Blog;
+import com.hmdp.entity.Follow;
+import com.hmdp.entity.User;
+import com.hmdp.entity.UserInfo;
+import com.hmdp.mapper.BlogMapper;
+import com.hmdp.mapper.FollowMapper;
+import com.hmdp.mapper.UserInfoMapper;
+import com.hmdp.mapper.UserMapper;
+import com.hmdp.service.IUserProfileService;
+import com.hmdp.utils.SystemConstants;
+import com.hmdp.utils.UserHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static com.hmdp.utils.RedisConstants.*;
+
+/**
+ * <p>
+ *  个人主页服务实现类，一次请求返回用户、详情、关注状态和最新博文
+ * </p>
+ */
+@Slf4j
+@Service
+public class UserProfileServiceImpl implements IUserProfileService {
+
+    private static final TypeReference<List<Blog>> BLOG_LIST_TYPE = new TypeReference<List<Blog>>() {
+    };
+
+    /**
+     * 缓存未命中时并行查询数据库的线程池，队列满了直接拒绝，这部分记到missing里，
+     * 不在请求线程上查库，保证接口的耗时上限
+     */
+    private static final ExecutorService PROFILE_EXECUTOR = new ThreadPoolExecutor(
+            4, 8, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256),
+            new NamedThreadFactory("user-profile-", true),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserInfoMapper userInfoMapper;
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    @Resource
+    private FollowMapper followMapper;
+
+    @Override
+    public Result queryProfile(Long id) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SystemConstants.PROFILE_TIMEOUT_MILLIS);
+        // 子线程拿不到登录用户，先取出来
+        UserDTO me = UserHolder.getUser();
+        Long meId = me == null ? null : me.getId();
+        String userKey = CACHE_USER_KEY + id;
+        String infoKey = CACHE_USER_INFO_KEY + id;
+        String blogsKey = CACHE_USER_BLOGS_KEY + id;
+        // 1.一个pipeline读出所有缓存
+        List<Object> cached = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.get(userKey.getBytes(StandardCharsets.UTF_8));
+            connection.get(infoKey.getBytes(StandardCharsets.UTF_8));
+            connection.get(blogsKey.getBytes(StandardCharsets.UTF_8));
+            if (meId != null) {
+                byte[] followKey = (FOLLOW_KEY + meId).getBytes(StandardCharsets.UTF_8);
+                connection.exists(followKey);
+                connection.sIsMember(followKey, id.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        // 2.未命中的部分并行查询数据库
+        String userJson = (String) cached.get(0);
+        String infoJson = (String) cached.get(1);
+        String blogsJson = (String) cached.get(2);
+        CompletableFuture<UserDTO> userFuture = userJson != null
+                ? CompletableFuture.completedFuture(read(userJson, UserDTO.class))
+                : supplyAsync(() -> loadUser(id));
+        CompletableFuture<UserInfo> infoFuture = infoJson != null
+                ? CompletableFuture.completedFuture(read(infoJson, UserInfo.class))
+                : supplyAsync(() -> loadInfo(id));
+        CompletableFuture<List<Blog>> blogsFuture = blogsJson != null
+                ? CompletableFuture.completedFuture(readBlogs(blogsJson))
+                : supplyAsync(() -> loadBlogs(id));
+        CompletableFuture<Boolean> followFuture;
+        if (meId == null) {
+            followFuture = CompletableFuture.completedFuture(null);
+        } else if (Boolean.TRUE.equals(cached.get(3))) {
+            followFuture = CompletableFuture.completedFuture((Boolean) cached.get(4));
+        } else {
+            followFuture = supplyAsync(() -> loadIsFollowed(meId, id));
+        }
+        // 3.在耗时上限内等待结果，超时的部分不返回
+        List<String> missing = new ArrayList<>();
+        UserDTO user = await(userFuture, deadline, "user", missing);
+        if (user == null) {
+            return missing.isEmpty() ? Result.fail("用户不存在！") : Result.fail("查询超时，请稍后再试");
+        }
+        Map<String, Object> profile = new LinkedHashMap<>(5);
+        profile.put("user", user);
+        profile.put("info", await(infoFuture, deadline, "info", missing));
+        profile.put("isFollowed", await(followFuture, deadline, "isFollowed", missing));
+        profile.put("blogs", await(blogsFuture, deadline, "blogs", missing));
+        if (!missing.isEmpty()) {
+            profile.put("missing", missing);
+        }
+        return Result.ok(profile);
+    }
+
+    /**
+     * 线程池拒绝时返回失败的future，由await统一记到missing里
+     */
+    private static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, PROFILE_EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future, long deadline, String name, List<String> missing) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 查询继续执行，结果写入缓存，下次请求就能命中
+            log.warn("个人主页查询超时，跳过：{}", name);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                log.warn("个人主页查询线程池已满，跳过：{}", name);
+            } else {
+                log.error("个人主页查询失败，跳过：{}", name, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        missing.add(name);
+        return null;
+    }
+
+    private UserDTO loadUser(Long id) {
+        String key = CACHE_USER_KEY + id;
+        User user = userMapper.selectById(id);
+        if (user == null) {
+            // 缓存空值，防止缓存穿透
+            stringRedisTemplate.opsForValue().set(key, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
+            return null;
+        }
+        UserDTO userDTO = BeanUtil.copyProperties(user, UserDTO.class);
+        stringRedisTemplate.opsForValue().set(key, write(userDTO), CACHE_USER_TTL, TimeUnit.MINUTES);
+        return userDTO;
+    }
+
+    private UserInfo loadInfo(Long id) {
+        String key = CACHE_USER_INFO_KEY + id;
+        UserInfo info = userInfoMapper.selectById(id);
+        if (info == null) {
+            // 没有详情，应该是第一次查看详情
+            stringRedisTemplate.opsForValue().set(key, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
+            return null;
+        }
+        info.setCreateTime(null);
+        info.setUpdateTime(null);
+        stringRedisTemplate.opsForValue().set(key, write(info), CACHE_USER_TTL, TimeUnit.MINUTES);
+        return info;
+    }
+
+    private List<Blog> loadBlogs(Long id) {
+        List<Blog> blogs = blogMapper.selectList(new QueryWrapper<Blog>()
+                .eq("user_id", id)
+                .orderByDesc("id")
+                .last("limit " + SystemConstants.PROFILE_RECENT_BLOG_SIZE));
+        stringRedisTemplate.opsForValue().set(CACHE_USER_BLOGS_KEY + id, write(blogs),
+                CACHE_USER_BLOGS_TTL, TimeUnit.MINUTES);
+        return blogs;
+    }
+
+    private Boolean loadIsFollowed(Long userId, Long followUserId) {
+        Integer count = followMapper.selectCount(new QueryWrapper<Follow>()
+                .eq("user_id", userId).eq("follow_user_id", followUserId));
+        return count != null && count > 0;
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        if (json.isEmpty()) {
+            // 命中空值
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("缓存解析失败", e);
+        }
+    }
+
+    private List<Blog> readBlogs(String json) {
+        try {
+            return objectMapper.readValue(json, BLOG_LIST_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("缓存解析失败", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化失败", e);
+        }
+    }
+}
@@ -1,11 +1,39 @@
 package com.hmdp.service.impl;
 
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.lang.UUID;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.dto.LoginFormDTO;
+import com.hmdp.dto.Result;
+import com.hmdp.dto.UserDTO;
 import com.hmdp.entity.User;
 import com.hmdp.mapper.UserMapper;
 import com.hmdp.service.IUserService;
+import com.hmdp.utils.LoginUserCache;
+import com.hmdp.utils.PasswordEncoder;
+import com.hmdp.utils.RegexUtils;
+import com.hmdp.utils.SmsSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.hmdp.utils.RedisConstants.*;
+import static com.hmdp.utils.SystemConstants.USER_NICK_NAME_PREFIX;
+
 /**
  * <p>
  * 服务实现类
@@ -14,7 +42,126 @@ import org.springframework.stereotype.Service;
  * @author 虎哥
  * @since 2021-12-22
  */
+@Slf4j
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IUserService {
 
+    private static final DefaultRedisScript<Long> SEND_CODE_SCRIPT;
+
+    static {
+        SEND_CODE_SCRIPT = new DefaultRedisScript<>();
+        SEND_CODE_SCRIPT.setLocation(new ClassPathResource("lua/send_code.lua"));
+        SEND_CODE_SCRIPT.setResultType(Long.class);
+    }
+
+    /**
+     * 发送短信的线程池，队列有界，满了直接拒绝，不阻塞请求线程
+     */
+    private static final ExecutorService SMS_EXECUTOR = new ThreadPoolExecutor(
+            2, 4, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(200),
+            new NamedThreadFactory("sms-sender-", true),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private LoginUserCache loginUserCache;
+
+    @Resource
+    private SmsSender smsSender;
+
+    @Override
+    public Result sendCode(String phone, String ip) {
+        // 1.校验手机号
+        if (RegexUtils.isPhoneInvalid(phone)) {
+            // 2.如果不符合，返回错误信息
+            return Result.fail("手机号格式错误！");
+        }
+        // 3.符合，生成验证码
+        String code = RandomUtil.randomNumbers(6);
+        // 4.一次lua调用完成手机号、IP限流并保存验证码
+        List<String> keys = Arrays.asList(
+                LOGIN_CODE_KEY + phone, LOGIN_CODE_PHONE_LIMIT_KEY + phone, LOGIN_CODE_IP_LIMIT_KEY + ip);
+        Long result = stringRedisTemplate.execute(SEND_CODE_SCRIPT, keys,
+                code,
+                String.valueOf(TimeUnit.MINUTES.toSeconds(LOGIN_CODE_TTL)),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(TimeUnit.MINUTES.toMillis(LOGIN_CODE_LIMIT_WINDOW)),
+                String.valueOf(LOGIN_CODE_PHONE_LIMIT),
+                String.valueOf(LOGIN_CODE_IP_LIMIT),
+                UUID.fastUUID().toString(true));
+        if (result == null || result != 0) {
+            return Result.fail("发送过于频繁，请稍后再试");
+        }
+        // 5.异步发送验证码
+        try {
+            SMS_EXECUTOR.execute(() -> {
+                try {
+                    smsSender.sendLoginCode(phone, code);
+                } catch (Exception e) {
+                    log.error("短信发送失败，手机号：{}", phone, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stringRedisTemplate.delete(LOGIN_CODE_KEY + phone);
+            return Result.fail("短信服务繁忙，请稍后再试");
+        }
+        return Result.ok();
+    }
+
+    @Override
+    public Result login(LoginFormDTO loginForm) {
+        // 1.校验手机号
+        String phone = loginForm.getPhone();
+        if (RegexUtils.isPhoneInvalid(phone)) {
+            return Result.fail("手机号格式错误！");
+        }
+        // 2.根据手机号查询用户 select * from tb_user where phone = ?
+        User user = query().eq("phone", phone).one();
+        if (loginForm.getCode() != null) {
+            // 3.验证码登录，从redis获取验证码并校验
+            String codeKey = LOGIN_CODE_KEY + phone;
+            String cacheCode = stringRedisTemplate.opsForValue().get(codeKey);
+            if (cacheCode == null || !cacheCode.equals(loginForm.getCode())) {
+                return Result.fail("验证码错误");
+            }
+            // 验证码只能使用一次
+            stringRedisTemplate.delete(codeKey);
+            // 4.用户不存在则创建
+            if (user == null) {
+                user = createUserWithPhone(phone);
+            }
+        } else {
+            // 3.密码登录
+            if (user == null || StrUtil.isBlank(user.getPassword())
+                    || !PasswordEncoder.matches(user.getPassword(), loginForm.getPassword())) {
+                return Result.fail("手机号或密码错误");
+            }
+        }
+        // 5.保存用户信息到 redis 和近端缓存
+        String token = UUID.randomUUID().toString(true);
+        loginUserCache.save(token, BeanUtil.copyProperties(user, UserDTO.class));
+        // 6.返回token
+        return Result.ok(token);
+    }
+
+    @Override
+    public Result logout(String token) {
+        if (token != null) {
+            loginUserCache.remove(token);
+        }
+        return Result.ok();
+    }
+
+    private User createUserWithPhone(String phone) {
+        // 创建用户
+        User user = new User();
+        user.setPhone(phone);
+        user.setNickName(USER_NICK_NAME_PREFIX + RandomUtil.randomString(10));
+        // 保存用户
+        save(user);
+        return user;
+    }
 }
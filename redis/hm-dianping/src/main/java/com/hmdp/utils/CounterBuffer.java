@@ -0,0 +1,37 @@
+package com.hmdp.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 计数器合并缓冲区：请求线程只累加内存中的增量，由定时任务批量写回数据库
+ */
+public class CounterBuffer {
+    private final ConcurrentHashMap<Long, Long> deltas = new ConcurrentHashMap<>();
+
+    public void add(Long id, long delta) {
+        deltas.merge(id, delta, Long::sum);
+    }
+
+    /**
+     * 取出并清空当前累计的增量，抵消为0的不返回
+     */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> snapshot = new HashMap<>();
+        for (Long id : deltas.keySet()) {
+            Long delta = deltas.remove(id);
+            if (delta != null && delta != 0) {
+                snapshot.put(id, delta);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 写回失败时把增量还回去，等待下一次写回
+     */
+    public void restore(Map<Long, Long> snapshot) {
+        snapshot.forEach(this::add);
+    }
+}
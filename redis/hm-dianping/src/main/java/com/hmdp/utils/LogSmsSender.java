@@ -0,0 +1,19 @@
+package com.hmdp.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地开发和测试用的短信发送实现，只打印日志
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "hmdp.sms", name = "sender", havingValue = "log", matchIfMissing = true)
+public class LogSmsSender implements SmsSender {
+
+    @Override
+    public void sendLoginCode(String phone, String code) {
+        log.debug("发送短信验证码成功，手机号：{}，验证码：{}", phone, code);
+    }
+}
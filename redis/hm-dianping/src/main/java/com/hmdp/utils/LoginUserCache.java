@@ -0,0 +1,102 @@
+package com.hmdp.utils;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.copier.CopyOptions;
+import com.hmdp.dto.UserDTO;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.hmdp.utils.RedisConstants.*;
+
+/**
+ * 登录用户缓存：redis中保存token对应的用户hash，JVM内再放一层短有效期的近端缓存。
+ * 只有redis中剩余有效期低于一半时才刷新，大部分已登录请求不产生redis写操作。
+ */
+@Component
+public class LoginUserCache {
+
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(LOGIN_USER_TTL);
+    private static final long REFRESH_THRESHOLD_MILLIS = TTL_MILLIS / 2;
+
+    private final LRUCache<String, Session> nearCache = CacheUtil.newLRUCache(
+            LOGIN_USER_NEAR_CACHE_SIZE, TimeUnit.SECONDS.toMillis(LOGIN_USER_NEAR_CACHE_TTL));
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    public void save(String token, UserDTO userDTO) {
+        String tokenKey = LOGIN_USER_KEY + token;
+        Map<String, Object> userMap = BeanUtil.beanToMap(userDTO, new HashMap<>(),
+                CopyOptions.create()
+                        .setIgnoreNullValue(true)
+                        .setFieldValueEditor((fieldName, fieldValue) -> fieldValue.toString()));
+        stringRedisTemplate.opsForHash().putAll(tokenKey, userMap);
+        stringRedisTemplate.expire(tokenKey, LOGIN_USER_TTL, TimeUnit.MINUTES);
+        nearCache.put(token, new Session(userDTO, System.currentTimeMillis() + TTL_MILLIS));
+    }
+
+    /**
+     * 根据token获取登录用户，未登录返回null
+     */
+    public UserDTO get(String token) {
+        long now = System.currentTimeMillis();
+        // 近端缓存命中，不访问redis，过期时间按访问时间不续期
+        Session session = nearCache.get(token, false);
+        if (session != null) {
+            if (session.expireAt - now < REFRESH_THRESHOLD_MILLIS) {
+                refresh(token, session, now);
+            }
+            return session.user;
+        }
+        // 一次往返读取用户hash和剩余有效期
+        byte[] tokenKey = (LOGIN_USER_KEY + token).getBytes(StandardCharsets.UTF_8);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hGetAll(tokenKey);
+            connection.pTtl(tokenKey);
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> userMap = (Map<Object, Object>) results.get(0);
+        if (userMap == null || userMap.isEmpty()) {
+            return null;
+        }
+        UserDTO userDTO = BeanUtil.fillBeanWithMap(userMap, new UserDTO(), false);
+        Long ttl = (Long) results.get(1);
+        session = new Session(userDTO, now + (ttl == null || ttl < 0 ? 0 : ttl));
+        if (session.expireAt - now < REFRESH_THRESHOLD_MILLIS) {
+            refresh(token, session, now);
+        }
+        nearCache.put(token, session);
+        return userDTO;
+    }
+
+    public void remove(String token) {
+        nearCache.remove(token);
+        stringRedisTemplate.delete(LOGIN_USER_KEY + token);
+    }
+
+    private void refresh(String token, Session session, long now) {
+        stringRedisTemplate.expire(LOGIN_USER_KEY + token, LOGIN_USER_TTL, TimeUnit.MINUTES);
+        session.expireAt = now + TTL_MILLIS;
+    }
+
+    private static class Session {
+        private final UserDTO user;
+        private volatile long expireAt;
+
+        Session(UserDTO user, long expireAt) {
+            this.user = user;
+            this.expireAt = expireAt;
+        }
+    }
+}
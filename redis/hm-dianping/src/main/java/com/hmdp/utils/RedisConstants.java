@@ -3,20 +3,51 @@ package com.hmdp.utils;
 public class RedisConstants {
     public static final String LOGIN_CODE_KEY = "login:code:";
     public static final Long LOGIN_CODE_TTL = 2L;
+    public static final String LOGIN_CODE_PHONE_LIMIT_KEY = "login:limit:phone:";
+    public static final String LOGIN_CODE_IP_LIMIT_KEY = "login:limit:ip:";
+    public static final Long LOGIN_CODE_LIMIT_WINDOW = 60L;
+    public static final int LOGIN_CODE_PHONE_LIMIT = 5;
+    public static final int LOGIN_CODE_IP_LIMIT = 20;
     public static final String LOGIN_USER_KEY = "login:token:";
     public static final Long LOGIN_USER_TTL = 36000L;
+    public static final Long LOGIN_USER_NEAR_CACHE_TTL = 10L;
+    public static final int LOGIN_USER_NEAR_CACHE_SIZE = 10000;
 
     public static final Long CACHE_NULL_TTL = 2L;
 
     public static final Long CACHE_SHOP_TTL = 30L;
     public static final String CACHE_SHOP_KEY = "cache:shop:";
 
+    public static final Long CACHE_BLOG_TTL = 30L;
+    public static final String CACHE_BLOG_KEY = "cache:blog:";
+
+    public static final Long CACHE_COMMENTS_TTL = 30L;
+    public static final String CACHE_COMMENTS_KEY = "cache:comments:";
+
+    public static final Long CACHE_USER_TTL = 30L;
+    public static final String CACHE_USER_KEY = "cache:user:";
+    public static final String CACHE_USER_INFO_KEY = "cache:user:info:";
+    public static final Long CACHE_USER_BLOGS_TTL = 5L;
+    public static final String CACHE_USER_BLOGS_KEY = "cache:user:blogs:";
+
     public static final String LOCK_SHOP_KEY = "lock:shop:";
     public static final Long LOCK_SHOP_TTL = 10L;
 
     public static final String SECKILL_STOCK_KEY = "seckill:stock:";
     public static final String BLOG_LIKED_KEY = "blog:liked:";
+    public static final String BLOG_UV_KEY = "blog:uv:";
+    public static final String BLOG_UV_ACTIVE_KEY = "blog:uv:active:";
+    public static final Long BLOG_UV_DAY_TTL = 3L;
+    public static final String FOLLOW_KEY = "follows:";
     public static final String FEED_KEY = "feed:";
+    public static final String FEED_OUTBOX_KEY = "feed:outbox:";
+    public static final String FEED_BIG_V_KEY = "feed:bigv";
+    public static final String FEED_PUSH_RETRY_KEY = "feed:push:retry";
     public static final String SHOP_GEO_KEY = "shop:geo:";
+    public static final String SHOP_UV_KEY = "shop:uv:";
+    public static final Long SHOP_UV_TTL = 40L;
+    public static final Long SHOP_UV_REPORT_TTL = 10L;
     public static final String USER_SIGN_KEY = "sign:";
+    public static final String UPLOAD_IMAGE_INDEX_KEY = "upload:image:index";
+    public static final String UPLOAD_IMAGE_REFS_KEY = "upload:image:refs";
 }
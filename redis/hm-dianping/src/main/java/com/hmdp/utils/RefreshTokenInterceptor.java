@@ -0,0 +1,40 @@
+package com.hmdp.utils;
+
+import cn.hutool.core.util.StrUtil;
+import com.hmdp.dto.UserDTO;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class RefreshTokenInterceptor implements HandlerInterceptor {
+
+    private final LoginUserCache loginUserCache;
+
+    public RefreshTokenInterceptor(LoginUserCache loginUserCache) {
+        this.loginUserCache = loginUserCache;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 获取请求头中的token
+        String token = request.getHeader("authorization");
+        if (StrUtil.isBlank(token)) {
+            return true;
+        }
+        // 基于token获取用户，先查近端缓存再查redis
+        UserDTO userDTO = loginUserCache.get(token);
+        if (userDTO == null) {
+            return true;
+        }
+        // 存在，保存用户信息到 ThreadLocal
+        UserHolder.saveUser(userDTO);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // 移除用户
+        UserHolder.removeUser();
+    }
+}
@@ -0,0 +1,14 @@
+package com.hmdp.utils;
+
+/**
+ * 短信发送接口，接入具体的短信服务商时提供新的实现
+ */
+public interface SmsSender {
+
+    /**
+     * 发送登录验证码
+     * @param phone 手机号
+     * @param code 验证码
+     */
+    void sendLoginCode(String phone, String code);
+}
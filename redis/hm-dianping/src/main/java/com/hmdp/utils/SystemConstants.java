@@ -2,7 +2,24 @@ package com.hmdp.utils;
 
 public class SystemConstants {
     public static final String IMAGE_UPLOAD_DIR = "D:\\lesson\\nginx-1.18.0\\html\\hmdp\\imgs\\";
+    public static final int THUMBNAIL_WIDTH = 200;
     public static final String USER_NICK_NAME_PREFIX = "user_";
     public static final int DEFAULT_PAGE_SIZE = 5;
     public static final int MAX_PAGE_SIZE = 10;
+    // 评论列表中每条一级评论附带的回复数量
+    public static final int COMMENT_REPLY_PREVIEW_SIZE = 3;
+    // 粉丝数超过该阈值的作者只写自己的发件箱，由粉丝读取时拉取
+    public static final int FEED_BIG_V_THRESHOLD = 5000;
+    // 推送时每个pipeline写入的收件箱数量
+    public static final int FEED_PUSH_BATCH_SIZE = 500;
+    // 发件箱最多保留的博文数量
+    public static final int FEED_OUTBOX_MAX_SIZE = 1000;
+    // 个人主页展示的最新博文数量
+    public static final int PROFILE_RECENT_BLOG_SIZE = 5;
+    // 个人主页聚合查询的耗时上限，超时的部分不返回
+    public static final long PROFILE_TIMEOUT_MILLIS = 300;
+    // 店铺访客记录的缓冲队列长度，满了直接丢弃
+    public static final int SHOP_UV_QUEUE_SIZE = 10000;
+    // 每个pipeline写入的店铺访客数量
+    public static final int SHOP_UV_BATCH_SIZE = 200;
 }
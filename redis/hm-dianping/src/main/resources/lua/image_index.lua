@@ -0,0 +1,6 @@
+-- 内容寻址图片索引：登记文件并增加引用计数，返回该hash对应的已存文件名
+-- KEYS[1] 索引hash，KEYS[2] 引用计数hash
+-- ARGV[1] 文件内容hash，ARGV[2] 本次上传生成的文件名
+redis.call('hsetnx', KEYS[1], ARGV[1], ARGV[2])
+redis.call('hincrby', KEYS[2], ARGV[1], 1)
+return redis.call('hget', KEYS[1], ARGV[1])
@@ -0,0 +1,10 @@
+-- 释放一次图片引用，引用归零时删除索引，返回1表示可以删除文件
+-- KEYS[1] 索引hash，KEYS[2] 引用计数hash
+-- ARGV[1] 文件内容hash
+local refs = redis.call('hincrby', KEYS[2], ARGV[1], -1)
+if refs > 0 then
+    return 0
+end
+redis.call('hdel', KEYS[1], ARGV[1])
+redis.call('hdel', KEYS[2], ARGV[1])
+return 1
@@ -0,0 +1,22 @@
+-- 保存登录验证码，同时按手机号和IP做滑动窗口限流，返回0成功，1手机号超限，2IP超限
+-- KEYS[1] 验证码key，KEYS[2] 手机号限流zset，KEYS[3] IP限流zset
+-- ARGV[1] 验证码，ARGV[2] 验证码有效期(秒)，ARGV[3] 当前时间(毫秒)，ARGV[4] 窗口长度(毫秒)
+-- ARGV[5] 手机号窗口内上限，ARGV[6] IP窗口内上限，ARGV[7] 本次请求的唯一标识
+local now = tonumber(ARGV[3])
+local window = tonumber(ARGV[4])
+-- 移除窗口外的记录
+redis.call('zremrangebyscore', KEYS[2], 0, now - window)
+redis.call('zremrangebyscore', KEYS[3], 0, now - window)
+if redis.call('zcard', KEYS[2]) >= tonumber(ARGV[5]) then
+    return 1
+end
+if redis.call('zcard', KEYS[3]) >= tonumber(ARGV[6]) then
+    return 2
+end
+-- 只有放行的请求才记录，集合大小不会超过上限
+redis.call('zadd', KEYS[2], now, ARGV[7])
+redis.call('zadd', KEYS[3], now, ARGV[7])
+redis.call('pexpire', KEYS[2], window)
+redis.call('pexpire', KEYS[3], window)
+redis.call('set', KEYS[1], ARGV[1], 'EX', ARGV[2])
+return 0
@@ -1,9 +1,56 @@
 package com.hmdp;
 
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+
+import static com.hmdp.utils.RedisConstants.SHOP_UV_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class HmDianPingApplicationTests {
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 店铺访客HyperLogLog的误差和内存占用，需要连接redis，运行方式：mvn test -Dhmdp.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "hmdp.benchmark", matches = "true")
+    void testShopUvMemory() {
+        String key = SHOP_UV_KEY + "benchmark:" + System.currentTimeMillis();
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        int total = 1_000_000;
+        int batch = 1000;
+        try {
+            for (int i = 0; i < total; i += batch) {
+                int from = i;
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    byte[][] visitors = new byte[batch][];
+                    for (int j = 0; j < batch; j++) {
+                        visitors[j] = ("user_" + (from + j)).getBytes(StandardCharsets.UTF_8);
+                    }
+                    connection.pfAdd(rawKey, visitors);
+                    return null;
+                });
+            }
+            Long uv = stringRedisTemplate.opsForHyperLogLog().size(key);
+            // MEMORY USAGE key 没有对应的api，直接执行命令
+            Long memory = (Long) stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+                    connection.execute("MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), rawKey));
+            // 标准误差0.81%，2%以内
+            assertThat(uv).isNotNull();
+            assertThat(Math.abs(uv - total) * 100.0 / total).isLessThan(2.0);
+            // 稠密编码12KB，加上jemalloc按size class取整和key的开销，不超过16KB
+            assertThat(memory).isNotNull().isLessThanOrEqualTo(16 * 1024L);
+        } finally {
+            stringRedisTemplate.delete(key);
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package com.zyk_test.springboot_redis.batch;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sends single-key commands from many threads over one connection with auto-flush turned off,
+ * so commands issued close together leave in one socket write.
+ * <p>
+ * The first command of a window schedules a flush {@code window} later, and a window that
+ * reaches {@code max-size} commands is flushed right away. Callers still block for their own
+ * reply, so this trades up to one window of latency for far fewer syscalls and Redis reads
+ * under high fan-out. Multi-command blocks should keep using {@code executePipelined}, which
+ * is flushed as a whole according to {@code app.redis.pipeline.flush-threshold}.
+ */
+@Slf4j
+@Component
+public class CommandBatcher {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final Duration timeout;
+    private final RedisConnectionFactory connectionFactory;
+
+    /**
+     * Commands written to the connection buffer since the last flush.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile boolean active;
+    private StatefulRedisConnection<byte[], byte[]> connection;
+    private RedisAsyncCommands<byte[], byte[]> commands;
+    private ScheduledExecutorService flusher;
+
+    public CommandBatcher(RedisConnectionFactory connectionFactory,
+                          @Value("${app.redis.auto-batch.enabled:false}") boolean enabled,
+                          @Value("${app.redis.auto-batch.window:200us}") Duration window,
+                          @Value("${app.redis.auto-batch.max-size:256}") int maxSize,
+                          @Value("${spring.data.redis.timeout:2s}") Duration timeout) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+            log.warn("Auto-batching needs Lettuce, it stays disabled");
+            return;
+        }
+        AbstractRedisClient client = lettuce.getRequiredNativeClient();
+        if (!(client instanceof RedisClient redisClient)) {
+            log.warn("Auto-batching only supports standalone Redis, it stays disabled");
+            return;
+        }
+        try {
+            connection = redisClient.connect(ByteArrayCodec.INSTANCE);
+            connection.setAutoFlushCommands(false);
+            commands = connection.async();
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "redis-auto-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            flusher = executor;
+            active = true;
+            log.info("Redis auto-batching on, window {}us, max {} commands",
+                    TimeUnit.NANOSECONDS.toMicros(windowNanos), maxSize);
+        } catch (RuntimeException e) {
+            log.warn("Could not open the batching connection, auto-batching stays disabled", e);
+            stop();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        active = false;
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        if (connection != null) {
+            // Send whatever is still buffered before closing
+            connection.flushCommands();
+            connection.close();
+            connection = null;
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Queues a command on the batching connection and waits for its reply.
+     */
+    public <T> T execute(Function<RedisAsyncCommands<byte[], byte[]>, RedisFuture<T>> command) {
+        RedisFuture<T> future = command.apply(commands);
+        // Count only after the command is in the buffer, so a flush never misses a counted command
+        int queued = pending.incrementAndGet();
+        if (queued == 1) {
+            flusher.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        } else if (queued >= maxSize) {
+            flush();
+        }
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("Interrupted while waiting for a batched command", e);
+        } catch (ExecutionException e) {
+            throw new RedisSystemException("Batched command failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Batched command timed out after " + timeout, e);
+        }
+    }
+
+    private void flush() {
+        if (pending.getAndSet(0) > 0) {
+            connection.flushCommands();
+        }
+    }
+}
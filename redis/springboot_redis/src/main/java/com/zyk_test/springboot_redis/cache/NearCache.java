@@ -0,0 +1,238 @@
+package com.zyk_test.springboot_redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PreDestroy;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Local copy of hot keys kept coherent by Redis server-assisted client-side caching.
+ * <p>
+ * A dedicated RESP3 connection runs {@code CLIENT TRACKING ON BCAST PREFIX ...}, so Redis
+ * pushes an invalidation for every write to a key under one of the configured prefixes, no
+ * matter which client wrote it. Only those prefixes are cached, and only while tracking is
+ * active; if the connection drops the cache is cleared and bypassed until tracking is back.
+ */
+@Slf4j
+@Component
+public class NearCache {
+
+    private static final Object NULL = new Object();
+
+    private final boolean enabled;
+    private final String[] prefixes;
+    private final RedisConnectionFactory connectionFactory;
+
+    /**
+     * Redis key to cached value; hash keys map to a field-to-value map. Weighed by field count so
+     * max-size bounds cached values, not just keys, and reads do not take a lock.
+     */
+    private final Cache<String, Object> entries;
+
+    /**
+     * Bumped on every invalidation so a load that raced with one is not cached.
+     */
+    private final AtomicLong invalidationSeq = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private volatile boolean active;
+    private StatefulRedisConnection<String, String> trackingConnection;
+
+    public NearCache(RedisConnectionFactory connectionFactory,
+                     @Value("${app.redis.near-cache.enabled:false}") boolean enabled,
+                     @Value("${app.redis.near-cache.prefixes:}") String[] prefixes,
+                     @Value("${app.redis.near-cache.max-size:10000}") int maxSize) {
+        this.connectionFactory = connectionFactory;
+        this.prefixes = Arrays.stream(prefixes).filter(StringUtils::hasText).toArray(String[]::new);
+        this.enabled = enabled && this.prefixes.length > 0;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher(NearCache::weigh)
+                // Evict on the calling thread so the bound holds as soon as a write returns
+                .executor(Runnable::run)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+            log.warn("Near cache needs Lettuce, it stays disabled");
+            return;
+        }
+        AbstractRedisClient client = lettuce.getRequiredNativeClient();
+        if (!(client instanceof RedisClient redisClient)) {
+            log.warn("Near cache only supports standalone Redis, it stays disabled");
+            return;
+        }
+        try {
+            trackingConnection = redisClient.connect(StringCodec.UTF8);
+            trackingConnection.addListener(this::onPush);
+            trackingConnection.addListener(new RedisConnectionStateListener() {
+                @Override
+                public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+                    // Tracking state does not survive a reconnect, enable it again
+                    trackingConnection.async().clientTracking(trackingArgs())
+                            .thenRun(() -> active = true);
+                }
+
+                @Override
+                public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+                    active = false;
+                    clear();
+                }
+            });
+            trackingConnection.sync().clientTracking(trackingArgs());
+            active = true;
+            log.info("Near cache tracking prefixes {}", (Object) prefixes);
+        } catch (RuntimeException e) {
+            log.warn("Could not enable client tracking, near cache stays disabled", e);
+            stop();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        active = false;
+        if (trackingConnection != null) {
+            trackingConnection.close();
+            trackingConnection = null;
+        }
+        clear();
+    }
+
+    public boolean isCacheable(String key) {
+        if (!active) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Object get(String key, Supplier<Object> loader) {
+        Object cached = entries.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached == NULL ? null : cached;
+        }
+        misses.increment();
+        long seq = invalidationSeq.get();
+        Object value = loader.get();
+        putIfUnchanged(key, value == null ? NULL : value, seq);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Object getHashField(String key, String field, Supplier<Object> loader) {
+        Object cached = entries.getIfPresent(key);
+        if (cached instanceof Map<?, ?> fields) {
+            Object value = fields.get(field);
+            if (value != null) {
+                hits.increment();
+                return value == NULL ? null : value;
+            }
+        }
+        misses.increment();
+        long seq = invalidationSeq.get();
+        Object value = loader.get();
+        // Adding the field inside compute makes the cache weigh the entry again
+        entries.asMap().compute(key, (k, current) -> {
+            if (invalidationSeq.get() != seq) {
+                return current;
+            }
+            Map<String, Object> fields = current instanceof Map<?, ?>
+                    ? (Map<String, Object>) current : new ConcurrentHashMap<>();
+            fields.put(field, value == null ? NULL : value);
+            return fields;
+        });
+        return value;
+    }
+
+    public void invalidate(String key) {
+        invalidationSeq.incrementAndGet();
+        entries.invalidate(key);
+    }
+
+    public void clear() {
+        invalidationSeq.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return Map.of(
+                "active", active,
+                "size", entries.estimatedSize(),
+                "hits", hitCount,
+                "misses", missCount,
+                "hitRatio", total == 0 ? 0.0 : (double) hitCount / total,
+                "invalidations", invalidations.sum());
+    }
+
+    private void putIfUnchanged(String key, Object value, long seq) {
+        entries.asMap().compute(key, (k, current) -> invalidationSeq.get() == seq ? value : current);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onPush(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        invalidations.increment();
+        if (content.size() < 2 || content.get(1) == null) {
+            // A null key list means the server flushed its keyspace
+            clear();
+            return;
+        }
+        for (Object key : (List<Object>) content.get(1)) {
+            invalidate((String) key);
+        }
+    }
+
+    /**
+     * A hash counts one per cached field, anything else counts one
+     */
+    private static int weigh(String key, Object value) {
+        return value instanceof Map<?, ?> fields ? Math.max(1, fields.size()) : 1;
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(prefixes);
+    }
+}
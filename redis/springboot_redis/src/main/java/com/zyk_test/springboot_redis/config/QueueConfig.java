@@ -0,0 +1,30 @@
+package com.zyk_test.springboot_redis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class QueueConfig {
+
+    /**
+     * Runs the consumer loops of {@code ReliableQueue.subscribe}. Each consumer holds a thread
+     * while it waits in BLMOVE, so with {@code platform} the pool size caps the number of
+     * consumers; with {@code virtual} the Lettuce pool size does.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService queueExecutor(@Value("${app.redis.queue.executor:virtual}") String type,
+                                         @Value("${app.redis.queue.pool-size:8}") int poolSize) {
+        return switch (type) {
+            case "virtual" -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("queue-worker-", 0).factory());
+            case "platform" -> Executors.newFixedThreadPool(poolSize,
+                    Thread.ofPlatform().name("queue-worker-", 0).daemon(true).factory());
+            default -> throw new IllegalArgumentException(
+                    "app.redis.queue.executor must be virtual or platform, was " + type);
+        };
+    }
+}
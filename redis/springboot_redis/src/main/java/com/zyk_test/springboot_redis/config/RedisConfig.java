@@ -1,20 +1,87 @@
 package com.zyk_test.springboot_redis.config;
 
+import com.zyk_test.springboot_redis.serializer.CompressingRedisSerializer;
+import com.zyk_test.springboot_redis.serializer.ValueSerializerType;
+import com.zyk_test.springboot_redis.serializer.ValueSerializers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
 
+    /**
+     * Applies the connection settings Spring Boot has no properties for.
+     * <ul>
+     *     <li>{@code app.redis.share-native-connection}: true sends all non-blocking commands over one
+     *     shared connection; false gives every operation its own connection, borrowed from the
+     *     {@code spring.data.redis.lettuce.pool} pool.</li>
+     *     <li>{@code app.redis.pipeline.flush-threshold}: 0 writes a pipelined block in one go when it
+     *     closes, n flushes every n commands. Spring's default flushes each command.</li>
+     * </ul>
+     * Static, and reading the {@link Environment} directly, because post-processors are created
+     * before regular beans.
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public static BeanPostProcessor lettuceConnectionFactoryCustomizer(Environment environment) {
+        boolean shareNativeConnection = environment.getProperty("app.redis.share-native-connection",
+                Boolean.class, true);
+        int flushThreshold = environment.getProperty("app.redis.pipeline.flush-threshold", Integer.class, 0);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LettuceConnectionFactory factory) {
+                    factory.setShareNativeConnection(shareNativeConnection);
+                    factory.setPipeliningFlushPolicy(flushThreshold > 0
+                            ? LettuceConnection.PipeliningFlushPolicy.buffered(flushThreshold)
+                            : LettuceConnection.PipeliningFlushPolicy.flushOnClose());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(
+            @Value("${app.redis.value-serializer:jdk}") ValueSerializerType valueSerializerType,
+            @Value("${app.redis.compression.enabled:true}") boolean compressionEnabled,
+            @Value("${app.redis.compression.threshold:1024}") int compressionThreshold) {
+        RedisSerializer<Object> serializer = ValueSerializers.create(valueSerializerType);
+        return compressionEnabled ? new CompressingRedisSerializer(serializer, compressionThreshold) : serializer;
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
+        template.setHashValueSerializer(redisValueSerializer);
         return template;
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory,
+                                                                       RedisSerializer<Object> redisValueSerializer) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(redisValueSerializer)
+                .hashKey(new StringRedisSerializer())
+                .hashValue(redisValueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+}
@@ -0,0 +1,14 @@
+package com.zyk_test.springboot_redis.context;
+
+import java.time.Instant;
+
+/**
+ * Immutable per-request data. It is bound to the servlet request rather than the
+ * executing thread, so it behaves the same on platform and virtual threads and is
+ * passed explicitly to any work handed off to another thread.
+ */
+public record RequestContext(String requestId, String clientIp, Instant startedAt) {
+
+    public static final String ATTRIBUTE = RequestContext.class.getName();
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+}
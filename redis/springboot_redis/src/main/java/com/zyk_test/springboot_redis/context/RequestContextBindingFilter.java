@@ -0,0 +1,47 @@
+package com.zyk_test.springboot_redis.context;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Creates the {@link RequestContext} for each request and stores it as a request attribute.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestContextBindingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(RequestContext.REQUEST_ID_HEADER);
+        if (!StringUtils.hasText(requestId)) {
+            requestId = UUID.randomUUID().toString();
+        }
+        RequestContext context = new RequestContext(requestId, request.getRemoteAddr(), Instant.now());
+        request.setAttribute(RequestContext.ATTRIBUTE, context);
+        response.setHeader(RequestContext.REQUEST_ID_HEADER, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (log.isDebugEnabled()) {
+                Thread thread = Thread.currentThread();
+                log.debug("{} {} [{}] took {} ms on {} thread", request.getMethod(), request.getRequestURI(), requestId,
+                        Duration.between(context.startedAt(), Instant.now()).toMillis(),
+                        thread.isVirtual() ? "virtual" : "platform");
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.zyk_test.springboot_redis.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Bounds for the page, window and count parameters of the paginated and streaming endpoints.
+ * A non-positive size would never advance the cursor, and a huge one brings back the
+ * unbounded replies those endpoints exist to avoid.
+ */
+final class PageLimits {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private PageLimits() {
+    }
+
+    static int checkSize(String name, int value) {
+        if (value < 1 || value > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    name + " must be between 1 and " + MAX_PAGE_SIZE + ", got " + value);
+        }
+        return value;
+    }
+
+    /**
+     * SCAN cursors are unsigned 64-bit decimals; anything else fails inside Redis as a script error.
+     */
+    static String checkCursor(String name, String value) {
+        if (!isUnsignedDecimal(value)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    name + " must be an unsigned decimal, got " + value);
+        }
+        return value;
+    }
+
+    static boolean isUnsignedDecimal(String value) {
+        if (value == null || value.isEmpty() || value.length() > 20) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        try {
+            Long.parseUnsignedLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static long checkOffset(String name, long value) {
+        if (value < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " must not be negative, got " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,100 @@
+package com.zyk_test.springboot_redis.controller;
+
+import com.zyk_test.springboot_redis.service.ReactiveRedisService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link RedisController} endpoints on WebFlux, active with the "reactive" profile.
+ */
+@RestController
+@RequestMapping("/redis")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRedisController {
+
+    @Autowired
+    private ReactiveRedisService redisService;
+
+    @GetMapping("/ping")
+    public Mono<Map<String, Object>> ping() {
+        // No virtualThread flag here: the mapping runs on a Netty or Lettuce event-loop thread
+        return redisService.ping().map(pong -> Map.of("pong", pong));
+    }
+
+    // String operations
+    @PostMapping("/string")
+    public Mono<String> setString(@RequestParam String key, @RequestParam String value) {
+        return redisService.setString(key, value).thenReturn("String value set successfully");
+    }
+
+    @PostMapping("/string/expiry")
+    public Mono<String> setStringWithExpiry(@RequestParam String key, @RequestParam String value,
+                                            @RequestParam long timeout) {
+        return redisService.setString(key, value, Duration.ofSeconds(timeout))
+                .thenReturn("String value with expiry set successfully");
+    }
+
+    @GetMapping("/string/{key}")
+    public Mono<Object> getString(@PathVariable String key) {
+        return redisService.getString(key);
+    }
+
+    @DeleteMapping("/string/{key}")
+    public Mono<String> deleteKey(@PathVariable String key) {
+        return redisService.deleteKey(key).thenReturn("Key deleted successfully");
+    }
+
+    // List operations
+    @PostMapping("/list/left")
+    public Mono<String> addToListLeft(@RequestParam String key, @RequestParam String value) {
+        return redisService.addToListLeft(key, value).thenReturn("Value added to list left successfully");
+    }
+
+    @PostMapping("/list/right")
+    public Mono<String> addToListRight(@RequestParam String key, @RequestParam String value) {
+        return redisService.addToListRight(key, value).thenReturn("Value added to list right successfully");
+    }
+
+    @GetMapping("/list/{key}")
+    public Mono<List<Object>> getList(@PathVariable String key) {
+        return redisService.getList(key, 500).collectList();
+    }
+
+    // Hash operations
+    @PostMapping("/hash")
+    public Mono<String> putHash(@RequestParam String key, @RequestParam String hashKey,
+                                @RequestParam String value) {
+        return redisService.putHash(key, hashKey, value).thenReturn("Hash value set successfully");
+    }
+
+    @GetMapping("/hash/{key}/{hashKey}")
+    public Mono<Object> getHash(@PathVariable String key, @PathVariable String hashKey) {
+        return redisService.getHash(key, hashKey);
+    }
+
+    @GetMapping("/hash/{key}")
+    public Mono<Map<Object, Object>> getHashAll(@PathVariable String key) {
+        return redisService.scanHash(key, 500).collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    // Streaming reads, elements are written as Redis returns them and only as fast as the client reads
+    @GetMapping(value = "/stream/list/{key}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Object> streamList(@PathVariable String key, @RequestParam(defaultValue = "500") int window) {
+        return redisService.getList(key, PageLimits.checkSize("window", window));
+    }
+
+    @GetMapping(value = "/stream/hash/{key}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Map<Object, Object>> streamHash(@PathVariable String key, @RequestParam(defaultValue = "500") int count) {
+        return redisService.scanHash(key, PageLimits.checkSize("count", count)).map(entry -> Map.of(entry.getKey(), entry.getValue()));
+    }
+}
@@ -1,20 +1,56 @@
 package com.zyk_test.springboot_redis.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zyk_test.springboot_redis.cache.NearCache;
+import com.zyk_test.springboot_redis.context.RequestContext;
+import com.zyk_test.springboot_redis.dto.HashFieldItem;
+import com.zyk_test.springboot_redis.dto.KeyValueItem;
+import com.zyk_test.springboot_redis.dto.PageResult;
+import com.zyk_test.springboot_redis.queue.ReliableQueue;
 import com.zyk_test.springboot_redis.service.RedisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/redis")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RedisController {
 
     @Autowired
     private RedisService redisService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private ReliableQueue reliableQueue;
+
+    @GetMapping("/ping")
+    public Map<String, Object> ping(RequestContext context) {
+        return Map.of(
+                "pong", redisService.ping(),
+                "requestId", context.requestId(),
+                "virtualThread", Thread.currentThread().isVirtual());
+    }
+
+    @GetMapping("/near-cache/stats")
+    public Map<String, Object> nearCacheStats() {
+        return nearCache.stats();
+    }
+
     // String operations
     @PostMapping("/string")
     public String setString(@RequestParam String key, @RequestParam String value) {
@@ -75,4 +111,100 @@ public class RedisController {
     public Map<Object, Object> getHashAll(@PathVariable String key) {
         return redisService.getHashAll(key);
     }
+
+    // Paginated and streaming reads for large lists and hashes
+    @GetMapping("/page/list/{key}")
+    public PageResult<List<Object>> getListPage(@PathVariable String key,
+                                                @RequestParam(defaultValue = "0") long start,
+                                                @RequestParam(defaultValue = "100") int count) {
+        return redisService.getListPage(key, PageLimits.checkOffset("start", start),
+                PageLimits.checkSize("count", count));
+    }
+
+    @GetMapping("/scan/hash/{key}")
+    public PageResult<Map<Object, Object>> scanHash(@PathVariable String key,
+                                                    @RequestParam(defaultValue = "0") String cursor,
+                                                    @RequestParam(defaultValue = "100") int count) {
+        return redisService.scanHash(key, PageLimits.checkCursor("cursor", cursor),
+                PageLimits.checkSize("count", count));
+    }
+
+    @GetMapping(value = "/stream/list/{key}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamList(@PathVariable String key,
+                                            @RequestParam(defaultValue = "500") int window) {
+        PageLimits.checkSize("window", window);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                redisService.forEachListWindow(key, window, items -> {
+                    try {
+                        for (Object item : items) {
+                            generator.writeObject(item);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    @GetMapping(value = "/stream/hash/{key}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamHash(@PathVariable String key,
+                                            @RequestParam(defaultValue = "500") int count) {
+        PageLimits.checkSize("count", count);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartObject();
+                int[] written = {0};
+                redisService.forEachHashEntry(key, count, (field, value) -> {
+                    try {
+                        generator.writeFieldName(String.valueOf(field));
+                        generator.writeObject(value);
+                        // Flush about once per HSCAN page so the response keeps moving
+                        if (++written[0] % count == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    // Batch operations, results are returned in request order
+    @PostMapping("/batch/string/set")
+    public List<Boolean> multiSet(@RequestBody List<KeyValueItem> items) {
+        return redisService.multiSet(items);
+    }
+
+    @PostMapping("/batch/string/get")
+    public List<Object> multiGet(@RequestBody List<String> keys) {
+        return redisService.multiGet(keys);
+    }
+
+    @PostMapping("/batch/string/delete")
+    public List<Boolean> multiDelete(@RequestBody List<String> keys) {
+        return redisService.multiDelete(keys);
+    }
+
+    @PostMapping("/batch/hash/put")
+    public List<Boolean> multiPutHash(@RequestBody List<HashFieldItem> items) {
+        return redisService.multiPutHash(items);
+    }
+
+    // Reliable queue, consumed through ReliableQueue.subscribe
+    @PostMapping("/queue/{name}")
+    public List<String> enqueue(@PathVariable String name, @RequestBody List<Object> payloads) {
+        return reliableQueue.enqueueAll(name, payloads);
+    }
+
+    @GetMapping("/queue/{name}/stats")
+    public Map<String, Object> queueStats(@PathVariable String name) {
+        return reliableQueue.stats(name);
+    }
 }
\ No newline at end of file
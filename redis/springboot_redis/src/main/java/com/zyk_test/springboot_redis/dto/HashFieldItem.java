@@ -0,0 +1,7 @@
+package com.zyk_test.springboot_redis.dto;
+
+/**
+ * One field of a batch hash put.
+ */
+public record HashFieldItem(String key, String hashKey, Object value) {
+}
@@ -0,0 +1,7 @@
+package com.zyk_test.springboot_redis.dto;
+
+/**
+ * One entry of a batch set. {@code ttlSeconds} is optional; null or non-positive means no expiry.
+ */
+public record KeyValueItem(String key, Object value, Long ttlSeconds) {
+}
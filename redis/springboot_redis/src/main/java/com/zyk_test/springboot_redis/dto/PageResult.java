@@ -0,0 +1,8 @@
+package com.zyk_test.springboot_redis.dto;
+
+/**
+ * One page of a paginated read. {@code next} is passed back to fetch the following page and is
+ * null once the whole key has been read.
+ */
+public record PageResult<T>(T content, String next) {
+}
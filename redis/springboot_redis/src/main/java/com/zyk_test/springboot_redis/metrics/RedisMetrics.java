@@ -0,0 +1,169 @@
+package com.zyk_test.springboot_redis.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency timers for Redis calls, tagged by operation and key prefix, plus a ring buffer of
+ * the slowest recent calls.
+ * <p>
+ * Callers take {@link System#nanoTime()} before the call and pass it to {@link #record}; there
+ * is no lambda or sample object per call. The prefix tag is the part of the key before the
+ * first {@code ':'}, matched against the known prefixes without building a substring. Once
+ * {@code max-prefixes} distinct prefixes have been seen, new ones are tagged {@code other}, so
+ * user-supplied keys cannot blow up the number of time series.
+ */
+@Component
+public class RedisMetrics {
+
+    public static final String METRIC_NAME = "redis.command";
+
+    private static final String NO_PREFIX = "none";
+    private static final String OTHER_PREFIX = "other";
+    private static final int MAX_KEY_LENGTH = 256;
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final int maxPrefixes;
+
+    private final KeyPrefix noPrefix;
+    private final KeyPrefix otherPrefix;
+    private volatile KeyPrefix[] prefixes = new KeyPrefix[0];
+
+    private final AtomicReferenceArray<SlowCommand> slowCommands;
+    private final AtomicLong slowCommandSeq = new AtomicLong();
+
+    public RedisMetrics(MeterRegistry registry,
+                        @Value("${app.redis.metrics.slow-threshold:50ms}") Duration slowThreshold,
+                        @Value("${app.redis.metrics.slow-log-size:128}") int slowLogSize,
+                        @Value("${app.redis.metrics.max-prefixes:50}") int maxPrefixes) {
+        this.registry = registry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxPrefixes = maxPrefixes;
+        this.slowCommands = new AtomicReferenceArray<>(slowLogSize);
+        this.noPrefix = new KeyPrefix(NO_PREFIX);
+        this.otherPrefix = new KeyPrefix(OTHER_PREFIX);
+    }
+
+    /**
+     * Records a call that started at {@code startNanos}. {@code key} is null for calls without a
+     * key or with many keys; they are tagged {@code none}.
+     */
+    public void record(String operation, String key, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        prefixOf(key).timer(operation).record(elapsed, TimeUnit.NANOSECONDS);
+        if (elapsed >= slowThresholdNanos) {
+            recordSlow(operation, key, elapsed);
+        }
+    }
+
+    /**
+     * Slow calls still in the ring buffer, newest first.
+     */
+    public List<SlowCommand> slowCommands() {
+        List<SlowCommand> commands = new ArrayList<>(slowCommands.length());
+        for (int i = 0; i < slowCommands.length(); i++) {
+            SlowCommand command = slowCommands.get(i);
+            if (command != null) {
+                commands.add(command);
+            }
+        }
+        commands.sort(Comparator.comparingLong(SlowCommand::id).reversed());
+        return commands;
+    }
+
+    public void clearSlowCommands() {
+        for (int i = 0; i < slowCommands.length(); i++) {
+            slowCommands.set(i, null);
+        }
+    }
+
+    private void recordSlow(String operation, String key, long elapsedNanos) {
+        if (slowCommands.length() == 0) {
+            return;
+        }
+        long id = slowCommandSeq.getAndIncrement();
+        if (key != null && key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH) + "...";
+        }
+        slowCommands.set((int) (id % slowCommands.length()), new SlowCommand(id, Instant.now(), operation, key,
+                TimeUnit.NANOSECONDS.toMicros(elapsedNanos), Thread.currentThread().getName()));
+    }
+
+    private KeyPrefix prefixOf(String key) {
+        int end = key == null ? -1 : key.indexOf(':');
+        if (end <= 0) {
+            return noPrefix;
+        }
+        for (KeyPrefix prefix : prefixes) {
+            if (prefix.matches(key, end)) {
+                return prefix;
+            }
+        }
+        return addPrefix(key, end);
+    }
+
+    private synchronized KeyPrefix addPrefix(String key, int end) {
+        KeyPrefix[] current = prefixes;
+        for (KeyPrefix prefix : current) {
+            if (prefix.matches(key, end)) {
+                return prefix;
+            }
+        }
+        if (current.length >= maxPrefixes) {
+            return otherPrefix;
+        }
+        KeyPrefix prefix = new KeyPrefix(key.substring(0, end));
+        KeyPrefix[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = prefix;
+        prefixes = updated;
+        return prefix;
+    }
+
+    private final class KeyPrefix {
+
+        private final String name;
+        private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+        KeyPrefix(String name) {
+            this.name = name;
+        }
+
+        boolean matches(String key, int end) {
+            return name.length() == end && key.startsWith(name);
+        }
+
+        Timer timer(String operation) {
+            Timer timer = timers.get(operation);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(operation, this::register);
+            }
+            return timer;
+        }
+
+        private Timer register(String operation) {
+            return Timer.builder(METRIC_NAME)
+                    .description("Latency of RedisService calls")
+                    .tag("operation", operation)
+                    .tag("prefix", name)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.of(100, ChronoUnit.MICROS))
+                    .maximumExpectedValue(Duration.ofSeconds(2))
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.zyk_test.springboot_redis.metrics;
+
+import java.time.Instant;
+
+public record SlowCommand(long id, Instant timestamp, String operation, String key, long durationMicros,
+                          String thread) {
+}
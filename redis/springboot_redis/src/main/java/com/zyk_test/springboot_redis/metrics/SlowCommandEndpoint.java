@@ -0,0 +1,32 @@
+package com.zyk_test.springboot_redis.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/redisslowlog} lists the recent slow Redis calls, {@code DELETE} clears them.
+ */
+@Component
+@Endpoint(id = "redisslowlog")
+public class SlowCommandEndpoint {
+
+    private final RedisMetrics redisMetrics;
+
+    public SlowCommandEndpoint(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics;
+    }
+
+    @ReadOperation
+    public List<SlowCommand> slowCommands() {
+        return redisMetrics.slowCommands();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        redisMetrics.clearSlowCommands();
+    }
+}
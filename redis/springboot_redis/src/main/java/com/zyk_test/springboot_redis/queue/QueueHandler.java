@@ -0,0 +1,11 @@
+package com.zyk_test.springboot_redis.queue;
+
+@FunctionalInterface
+public interface QueueHandler {
+
+    /**
+     * Returning acks the message; throwing requeues it, or dead-letters it after
+     * {@code app.redis.queue.max-attempts} deliveries.
+     */
+    void handle(QueueMessage message) throws Exception;
+}
@@ -0,0 +1,7 @@
+package com.zyk_test.springboot_redis.queue;
+
+/**
+ * A leased message; {@code attempts} counts this delivery, so it is 1 the first time.
+ */
+public record QueueMessage(String id, Object payload, int attempts) {
+}
@@ -0,0 +1,404 @@
+package com.zyk_test.springboot_redis.queue;
+
+import com.zyk_test.springboot_redis.metrics.RedisMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * At-least-once work queue on Redis lists.
+ * <p>
+ * Producers push message ids onto {@code queue:{name}:pending} and keep payloads in a hash.
+ * Consumers atomically move ids to their own {@code queue:{name}:processing:{consumer}} list
+ * and lease them in a sorted set until the visibility timeout. An acked id is deleted; a
+ * requeued id, or one whose lease expired because its consumer died, goes back to the
+ * consuming end of the pending list. All keys of a queue share the {name} hash tag.
+ * <p>
+ * Consumer names should be stable across restarts (the default is instance id plus index), so
+ * the reaper finds the processing lists a crashed instance left behind.
+ */
+@Slf4j
+@Service
+public class ReliableQueue {
+
+    private static final DefaultRedisScript<Long> PUSH_SCRIPT = script("lua/queue_push.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> POP_SCRIPT = script("lua/queue_pop.lua", List.class);
+    private static final DefaultRedisScript<Long> ACK_SCRIPT = script("lua/queue_ack.lua", Long.class);
+    private static final DefaultRedisScript<Long> REQUEUE_SCRIPT = script("lua/queue_requeue.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> REAP_SCRIPT = script("lua/queue_reap.lua", List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisSerializer<Object> redisValueSerializer;
+
+    @Autowired
+    private RedisMetrics metrics;
+
+    @Autowired
+    @Qualifier("queueExecutor")
+    private ExecutorService queueExecutor;
+
+    @Value("${app.redis.queue.visibility-timeout:30s}")
+    private Duration visibilityTimeout;
+
+    @Value("${app.redis.queue.block-timeout:1s}")
+    private Duration blockTimeout;
+
+    @Value("${app.redis.queue.reaper-interval:5s}")
+    private Duration reaperInterval;
+
+    @Value("${app.redis.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.redis.queue.instance-id:${HOSTNAME:local}}")
+    private String instanceId;
+
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "queue-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void stop() {
+        reaper.shutdownNow();
+    }
+
+    public String enqueue(String queue, Object payload) {
+        return enqueueAll(queue, List.of(payload)).get(0);
+    }
+
+    /**
+     * Pushes all payloads in one round trip; returns their ids in the same order.
+     */
+    public List<String> enqueueAll(String queue, List<?> payloads) {
+        List<String> ids = new ArrayList<>(payloads.size());
+        byte[][] args = new byte[payloads.size() * 2][];
+        for (int i = 0; i < payloads.size(); i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            args[2 * i] = bytes(id);
+            args[2 * i + 1] = redisValueSerializer.serialize(payloads.get(i));
+        }
+        long start = System.nanoTime();
+        try {
+            eval(PUSH_SCRIPT, List.of(pendingKey(queue), messagesKey(queue)), args);
+        } finally {
+            metrics.record("queue.push", pendingKey(queue), start);
+        }
+        return ids;
+    }
+
+    /**
+     * Leases up to {@code max} messages in one round trip, without waiting.
+     */
+    public List<QueueMessage> pop(String queue, String consumer, int max) {
+        return lease(queue, consumer, max, null);
+    }
+
+    /**
+     * Like {@link #pop}, but waits up to {@code app.redis.queue.block-timeout} in BLMOVE when the
+     * queue is empty, then leases that message together with up to {@code max - 1} more.
+     */
+    public List<QueueMessage> popBlocking(String queue, String consumer, int max) {
+        List<QueueMessage> messages = pop(queue, consumer, max);
+        if (!messages.isEmpty()) {
+            return messages;
+        }
+        long start = System.nanoTime();
+        String id;
+        try {
+            // Blocking commands run on a dedicated pooled connection, not the shared one
+            id = stringRedisTemplate.opsForList().move(pendingKey(queue), RedisListCommands.Direction.RIGHT,
+                    processingKey(queue, consumer), RedisListCommands.Direction.LEFT, blockTimeout);
+        } finally {
+            metrics.record("queue.blmove", pendingKey(queue), start);
+        }
+        return id == null ? List.of() : lease(queue, consumer, max, id);
+    }
+
+    /**
+     * Returns false if the consumer no longer held the message, e.g. its lease expired and it
+     * was redelivered.
+     */
+    public boolean ack(String queue, String consumer, String id) {
+        long start = System.nanoTime();
+        try {
+            return eval(ACK_SCRIPT, List.of(processingKey(queue, consumer), leasesKey(queue), messagesKey(queue),
+                    attemptsKey(queue)), bytes(id)) == 1L;
+        } finally {
+            metrics.record("queue.ack", pendingKey(queue), start);
+        }
+    }
+
+    /**
+     * Gives the message back for immediate redelivery.
+     */
+    public boolean requeue(String queue, String consumer, String id) {
+        return moveFromProcessing(queue, consumer, id, pendingKey(queue), "queue.requeue");
+    }
+
+    /**
+     * Parks the message on {@code queue:{name}:dead}; its payload and attempt count are kept.
+     */
+    public boolean deadLetter(String queue, String consumer, String id) {
+        return moveFromProcessing(queue, consumer, id, deadKey(queue), "queue.dead");
+    }
+
+    /**
+     * Requeues every message whose lease has expired; returns how many were requeued. Messages
+     * that already used up {@code app.redis.queue.max-attempts} leases are dead-lettered instead.
+     */
+    public long reap(String queue) {
+        Set<String> consumers = stringRedisTemplate.opsForSet().members(consumersKey(queue));
+        if (consumers == null) {
+            return 0;
+        }
+        long requeued = 0;
+        long dead = 0;
+        byte[] visibility = bytes(Long.toString(visibilityTimeout.toMillis()));
+        byte[] attempts = bytes(Integer.toString(maxAttempts));
+        for (String consumer : consumers) {
+            long start = System.nanoTime();
+            try {
+                List<?> counts = eval(REAP_SCRIPT, List.of(processingKey(queue, consumer), leasesKey(queue),
+                        pendingKey(queue), attemptsKey(queue), deadKey(queue)), visibility, attempts);
+                requeued += (Long) counts.get(0);
+                dead += (Long) counts.get(1);
+            } finally {
+                metrics.record("queue.reap", pendingKey(queue), start);
+            }
+        }
+        if (dead > 0) {
+            log.error("Dead-lettered {} messages of queue {} whose consumers never finished them", dead, queue);
+        }
+        return requeued;
+    }
+
+    public Map<String, Object> stats(String queue) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", stringRedisTemplate.opsForList().size(pendingKey(queue)));
+        stats.put("inFlight", stringRedisTemplate.opsForZSet().zCard(leasesKey(queue)));
+        stats.put("dead", stringRedisTemplate.opsForList().size(deadKey(queue)));
+        stats.put("consumers", stringRedisTemplate.opsForSet().members(consumersKey(queue)));
+        return stats;
+    }
+
+    /**
+     * Starts {@code consumers} loops on the queue executor, each leasing up to {@code batchSize}
+     * messages at a time, plus a reaper for the queue. Close the subscription to stop them.
+     */
+    public Subscription subscribe(String queue, int consumers, int batchSize, QueueHandler handler) {
+        Subscription subscription = new Subscription(consumers);
+        for (int i = 0; i < consumers; i++) {
+            String consumer = instanceId + "-" + i;
+            queueExecutor.execute(() -> consume(subscription, queue, consumer, batchSize, handler));
+        }
+        long interval = reaperInterval.toMillis();
+        subscription.reaperTask = reaper.scheduleWithFixedDelay(() -> {
+            try {
+                long requeued = reap(queue);
+                if (requeued > 0) {
+                    log.info("Requeued {} expired messages of queue {}", requeued, queue);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Reaping queue {} failed", queue, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return subscription;
+    }
+
+    private void consume(Subscription subscription, String queue, String consumer, int batchSize,
+                         QueueHandler handler) {
+        subscription.consumerThreads.add(Thread.currentThread());
+        try {
+            while (subscription.running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    for (QueueMessage message : popBlocking(queue, consumer, batchSize)) {
+                        handle(queue, consumer, message, handler);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Consumer {} of queue {} failed, retrying", consumer, queue, e);
+                    sleep(blockTimeout);
+                }
+            }
+        } finally {
+            subscription.consumerThreads.remove(Thread.currentThread());
+            subscription.stopped.countDown();
+        }
+    }
+
+    private void handle(String queue, String consumer, QueueMessage message, QueueHandler handler) {
+        try {
+            handler.handle(message);
+        } catch (Exception e) {
+            if (message.attempts() >= maxAttempts) {
+                log.error("Message {} of queue {} failed {} times, dead-lettering it",
+                        message.id(), queue, message.attempts(), e);
+                deadLetter(queue, consumer, message.id());
+            } else {
+                log.warn("Message {} of queue {} failed, requeueing it", message.id(), queue, e);
+                requeue(queue, consumer, message.id());
+            }
+            return;
+        }
+        if (!ack(queue, consumer, message.id())) {
+            log.warn("Message {} of queue {} was acked after its lease expired", message.id(), queue);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<QueueMessage> lease(String queue, String consumer, int max, String movedId) {
+        List<byte[]> args = new ArrayList<>(4);
+        args.add(bytes(Integer.toString(max)));
+        args.add(bytes(Long.toString(visibilityTimeout.toMillis())));
+        args.add(bytes(consumer));
+        if (movedId != null) {
+            args.add(bytes(movedId));
+        }
+        long start = System.nanoTime();
+        List<byte[]> reply;
+        try {
+            reply = eval(POP_SCRIPT, List.of(pendingKey(queue), processingKey(queue, consumer), leasesKey(queue),
+                    messagesKey(queue), attemptsKey(queue), consumersKey(queue)), args.toArray(new byte[0][]));
+        } finally {
+            metrics.record("queue.pop", pendingKey(queue), start);
+        }
+        List<QueueMessage> messages = new ArrayList<>(reply.size() / 3);
+        for (int i = 0; i + 2 < reply.size(); i += 3) {
+            messages.add(new QueueMessage(
+                    new String(reply.get(i), StandardCharsets.UTF_8),
+                    redisValueSerializer.deserialize(reply.get(i + 2)),
+                    Integer.parseInt(new String(reply.get(i + 1), StandardCharsets.UTF_8))));
+        }
+        return messages;
+    }
+
+    private boolean moveFromProcessing(String queue, String consumer, String id, String target, String operation) {
+        long start = System.nanoTime();
+        try {
+            return eval(REQUEUE_SCRIPT, List.of(processingKey(queue, consumer), leasesKey(queue), target),
+                    bytes(id)) == 1L;
+        } finally {
+            metrics.record(operation, pendingKey(queue), start);
+        }
+    }
+
+    /**
+     * Arguments go to Redis as raw bytes, and byte[] replies come back undecoded.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> T eval(RedisScript<T> script, List<String> keys, byte[]... args) {
+        return (T) stringRedisTemplate.execute((RedisScript) script, RedisSerializer.byteArray(),
+                (RedisSerializer) RedisSerializer.byteArray(), keys, (Object[]) args);
+    }
+
+    private static <T> DefaultRedisScript<T> script(String location, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String pendingKey(String queue) {
+        return "queue:{" + queue + "}:pending";
+    }
+
+    private static String processingKey(String queue, String consumer) {
+        return "queue:{" + queue + "}:processing:" + consumer;
+    }
+
+    private static String leasesKey(String queue) {
+        return "queue:{" + queue + "}:leases";
+    }
+
+    private static String messagesKey(String queue) {
+        return "queue:{" + queue + "}:messages";
+    }
+
+    private static String attemptsKey(String queue) {
+        return "queue:{" + queue + "}:attempts";
+    }
+
+    private static String consumersKey(String queue) {
+        return "queue:{" + queue + "}:consumers";
+    }
+
+    private static String deadKey(String queue) {
+        return "queue:{" + queue + "}:dead";
+    }
+
+    public static final class Subscription implements AutoCloseable {
+
+        private final CountDownLatch stopped;
+        private final Set<Thread> consumerThreads = ConcurrentHashMap.newKeySet();
+        private volatile boolean running = true;
+        private volatile ScheduledFuture<?> reaperTask;
+
+        private Subscription(int consumers) {
+            this.stopped = new CountDownLatch(consumers);
+        }
+
+        /**
+         * Consumers finish the batch in hand and stop within one block timeout; returns once
+         * they all have. Called from a handler it only signals the stop, waiting there would
+         * deadlock on the calling consumer.
+         */
+        @Override
+        public void close() {
+            running = false;
+            if (reaperTask != null) {
+                reaperTask.cancel(false);
+            }
+            if (consumerThreads.contains(Thread.currentThread())) {
+                return;
+            }
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
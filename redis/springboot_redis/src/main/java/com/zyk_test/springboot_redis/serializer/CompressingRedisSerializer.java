@@ -0,0 +1,80 @@
+package com.zyk_test.springboot_redis.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * LZ4-compresses encoded values of at least {@code threshold} bytes.
+ * <p>
+ * Compressed values are laid out as {@code [HEADER][original length, 4 bytes][LZ4 block]}.
+ * The header byte never starts a value written by any {@link ValueSerializerType}, so values
+ * stored before compression was enabled, or below the threshold, are passed to the delegate
+ * unchanged.
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte HEADER = 0x1F;
+
+    /**
+     * Redis caps string values at 512 MB; anything larger is a corrupt header.
+     */
+    private static final int MAX_ORIGINAL_LENGTH = 512 * 1024 * 1024;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final RedisSerializer<Object> delegate;
+    private final int threshold;
+
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] encoded = delegate.serialize(value);
+        if (encoded == null || encoded.length < threshold) {
+            return encoded;
+        }
+        byte[] compressed = new byte[5 + COMPRESSOR.maxCompressedLength(encoded.length)];
+        int length = COMPRESSOR.compress(encoded, 0, encoded.length, compressed, 5);
+        if (length + 5 >= encoded.length) {
+            // Incompressible, keep the plain encoding
+            return encoded;
+        }
+        ByteBuffer.wrap(compressed).put(HEADER).putInt(encoded.length);
+        byte[] result = new byte[length + 5];
+        System.arraycopy(compressed, 0, result, 0, result.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 5 || bytes[0] != HEADER) {
+            return delegate.deserialize(bytes);
+        }
+        int originalLength = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        if (originalLength <= 0 || originalLength > MAX_ORIGINAL_LENGTH) {
+            throw new SerializationException("Invalid compressed length " + originalLength);
+        }
+        byte[] encoded = new byte[originalLength];
+        int length;
+        try {
+            length = DECOMPRESSOR.decompress(bytes, 5, bytes.length - 5, encoded, 0);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decompress value", e);
+        }
+        if (length != originalLength) {
+            // A truncated or mis-tagged block would otherwise decode into a zero-padded buffer
+            throw new SerializationException(
+                    "Decompressed " + length + " bytes but the header says " + originalLength);
+        }
+        return delegate.deserialize(encoded);
+    }
+}
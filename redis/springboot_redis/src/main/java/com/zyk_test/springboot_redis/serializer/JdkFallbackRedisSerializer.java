@@ -0,0 +1,37 @@
+package com.zyk_test.springboot_redis.serializer;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Writes with the configured serializer but still reads values written by Java serialization,
+ * recognised by the {@code 0xACED} stream magic. None of the other encodings can start with
+ * those bytes, so switching away from {@code jdk} does not strand existing data; old values are
+ * rewritten in the new encoding the next time they are set.
+ */
+public class JdkFallbackRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC_0 = (byte) 0xAC;
+    private static final byte MAGIC_1 = (byte) 0xED;
+
+    private final RedisSerializer<Object> delegate;
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    public JdkFallbackRedisSerializer(RedisSerializer<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return delegate.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null && bytes.length >= 2 && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1) {
+            return jdk.deserialize(bytes);
+        }
+        return delegate.deserialize(bytes);
+    }
+}
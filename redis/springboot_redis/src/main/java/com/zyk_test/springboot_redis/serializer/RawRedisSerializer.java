@@ -0,0 +1,51 @@
+package com.zyk_test.springboot_redis.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Passes strings and byte arrays through with a single leading byte recording which of the
+ * two was written, so reads return the same type.
+ */
+public class RawRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte BYTES = 0;
+    static final byte STRING = 1;
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte type;
+        byte[] payload;
+        if (value instanceof byte[] bytes) {
+            type = BYTES;
+            payload = bytes;
+        } else if (value instanceof CharSequence text) {
+            type = STRING;
+            payload = text.toString().getBytes(StandardCharsets.UTF_8);
+        } else {
+            throw new SerializationException("RAW values must be String or byte[], got " + value.getClass().getName());
+        }
+        byte[] result = new byte[payload.length + 1];
+        result[0] = type;
+        System.arraycopy(payload, 0, result, 1, payload.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return switch (bytes[0]) {
+            case BYTES -> Arrays.copyOfRange(bytes, 1, bytes.length);
+            case STRING -> new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+            default -> throw new SerializationException("Unknown RAW type header " + bytes[0]);
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.zyk_test.springboot_redis.serializer;
+
+/**
+ * Value encodings selectable through {@code app.redis.value-serializer}. The default stays
+ * {@code jdk} so data written by earlier versions keeps working; the other encodings can still
+ * read Java-serialized values, which makes switching a matter of changing the property.
+ */
+public enum ValueSerializerType {
+
+    /**
+     * Java serialization, the RedisTemplate default. Large and slow, kept for existing data.
+     */
+    JDK,
+
+    /**
+     * Jackson JSON with an {@code @class} type hint for non-final types.
+     */
+    JSON,
+
+    /**
+     * Jackson Smile, the binary form of the JSON encoding with the same type hints.
+     */
+    SMILE,
+
+    /**
+     * Strings and byte arrays stored as-is behind a one-byte type header.
+     */
+    RAW
+}
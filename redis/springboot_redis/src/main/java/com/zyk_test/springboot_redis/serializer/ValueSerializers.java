@@ -0,0 +1,31 @@
+package com.zyk_test.springboot_redis.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+public final class ValueSerializers {
+
+    private ValueSerializers() {
+    }
+
+    /**
+     * Every encoding other than {@code jdk} also reads Java-serialized values, so existing data
+     * survives a switch.
+     */
+    public static RedisSerializer<Object> create(ValueSerializerType type) {
+        return switch (type) {
+            case JDK -> new JdkSerializationRedisSerializer();
+            case JSON -> new JdkFallbackRedisSerializer(GenericJackson2JsonRedisSerializer.builder()
+                    .defaultTyping(true)
+                    .build());
+            case SMILE -> new JdkFallbackRedisSerializer(GenericJackson2JsonRedisSerializer.builder()
+                    .objectMapper(new ObjectMapper(new SmileFactory()))
+                    .defaultTyping(true)
+                    .build());
+            case RAW -> new JdkFallbackRedisSerializer(new RawRedisSerializer());
+        };
+    }
+}
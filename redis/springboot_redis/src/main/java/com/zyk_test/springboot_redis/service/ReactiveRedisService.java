@@ -0,0 +1,95 @@
+package com.zyk_test.springboot_redis.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of {@link RedisService} for the reactive profile.
+ */
+@Service
+public class ReactiveRedisService {
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    public Mono<String> ping() {
+        return reactiveRedisTemplate.execute(connection -> connection.ping()).next();
+    }
+
+    // String operations
+    public Mono<Boolean> setString(String key, Object value) {
+        return reactiveRedisTemplate.opsForValue().set(key, value);
+    }
+
+    public Mono<Boolean> setString(String key, Object value, Duration timeout) {
+        return reactiveRedisTemplate.opsForValue().set(key, value, timeout);
+    }
+
+    public Mono<Object> getString(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    public Mono<Boolean> hasKey(String key) {
+        return reactiveRedisTemplate.hasKey(key);
+    }
+
+    public Mono<Boolean> deleteKey(String key) {
+        return reactiveRedisTemplate.delete(key).map(count -> count > 0);
+    }
+
+    // List operations
+    public Mono<Long> addToListLeft(String key, Object value) {
+        return reactiveRedisTemplate.opsForList().leftPush(key, value);
+    }
+
+    public Mono<Long> addToListRight(String key, Object value) {
+        return reactiveRedisTemplate.opsForList().rightPush(key, value);
+    }
+
+    /**
+     * Reads the list in LRANGE windows; the next window is only requested once the
+     * subscriber has demand for it.
+     */
+    public Flux<Object> getList(String key, int window) {
+        // A window of 0 would generate the same empty range forever and never complete
+        Assert.isTrue(window > 0, "window must be > 0");
+        return Flux.<Long, Long>generate(() -> 0L, (start, sink) -> {
+                    sink.next(start);
+                    return start + window;
+                })
+                .concatMap(start -> reactiveRedisTemplate.opsForList().range(key, start, start + window - 1)
+                        .collectList(), 1)
+                .takeUntil(items -> items.size() < window)
+                .flatMapIterable(Function.identity());
+    }
+
+    // Hash operations
+    public Mono<Boolean> putHash(String key, String hashKey, Object value) {
+        return reactiveRedisTemplate.opsForHash().put(key, hashKey, value);
+    }
+
+    public Mono<Object> getHash(String key, String hashKey) {
+        return reactiveRedisTemplate.opsForHash().get(key, hashKey);
+    }
+
+    /**
+     * Walks the hash with HSCAN; pages are fetched as the subscriber requests entries.
+     */
+    public Flux<Map.Entry<Object, Object>> scanHash(String key, int count) {
+        Assert.isTrue(count > 0, "count must be > 0");
+        return reactiveRedisTemplate.opsForHash().scan(key, ScanOptions.scanOptions().count(count).build());
+    }
+
+    public Mono<Long> deleteHashFields(String key, Object... hashKeys) {
+        return reactiveRedisTemplate.opsForHash().remove(key, hashKeys);
+    }
+}
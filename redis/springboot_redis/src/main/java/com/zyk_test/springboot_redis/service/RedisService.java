@@ -1,75 +1,441 @@
 package com.zyk_test.springboot_redis.service;
 
+import com.zyk_test.springboot_redis.batch.CommandBatcher;
+import com.zyk_test.springboot_redis.cache.NearCache;
+import com.zyk_test.springboot_redis.dto.HashFieldItem;
+import com.zyk_test.springboot_redis.dto.KeyValueItem;
+import com.zyk_test.springboot_redis.dto.PageResult;
+import com.zyk_test.springboot_redis.metrics.RedisMetrics;
+import io.lettuce.core.SetArgs;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Service
 public class RedisService {
 
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> HSCAN_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        HSCAN_SCRIPT.setLocation(new ClassPathResource("lua/hash_scan.lua"));
+        HSCAN_SCRIPT.setResultType(List.class);
+    }
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private RedisMetrics metrics;
+
+    @Autowired
+    private CommandBatcher batcher;
+
+    @Value("${app.redis.batch-size:500}")
+    private int batchSize;
+
+    @PostConstruct
+    void validateBatchSize() {
+        // chunks() steps by batchSize, a non-positive value would never finish
+        Assert.isTrue(batchSize > 0, "app.redis.batch-size must be > 0, got " + batchSize);
+    }
+
+    // Every call is timed by RedisMetrics; start/record rather than a lambda keeps it allocation-free
+    public String ping() {
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.execute((RedisCallback<String>) RedisConnection::ping);
+        } finally {
+            metrics.record("ping", null, start);
+        }
+    }
+
     // String operations
     public void setString(String key, Object value) {
-        redisTemplate.opsForValue().set(key, value);
+        long start = System.nanoTime();
+        try {
+            if (batcher.isActive()) {
+                batcher.execute(commands -> commands.set(rawKey(key), rawValue(value)));
+            } else {
+                redisTemplate.opsForValue().set(key, value);
+            }
+        } finally {
+            metrics.record("set", key, start);
+        }
+        nearCache.invalidate(key);
     }
 
     public void setString(String key, Object value, long timeout, TimeUnit unit) {
-        redisTemplate.opsForValue().set(key, value, timeout, unit);
+        long start = System.nanoTime();
+        try {
+            if (batcher.isActive()) {
+                batcher.execute(commands -> commands.set(rawKey(key), rawValue(value),
+                        SetArgs.Builder.px(unit.toMillis(timeout))));
+            } else {
+                redisTemplate.opsForValue().set(key, value, timeout, unit);
+            }
+        } finally {
+            metrics.record("setex", key, start);
+        }
+        nearCache.invalidate(key);
     }
 
     public Object getString(String key) {
-        return redisTemplate.opsForValue().get(key);
+        if (nearCache.isCacheable(key)) {
+            return nearCache.get(key, () -> timedGet(key));
+        }
+        return timedGet(key);
+    }
+
+    private Object timedGet(String key) {
+        long start = System.nanoTime();
+        try {
+            if (batcher.isActive()) {
+                return redisTemplate.getValueSerializer().deserialize(
+                        batcher.execute(commands -> commands.get(rawKey(key))));
+            }
+            return redisTemplate.opsForValue().get(key);
+        } finally {
+            metrics.record("get", key, start);
+        }
     }
 
     public Boolean hasKey(String key) {
-        return redisTemplate.hasKey(key);
+        long start = System.nanoTime();
+        try {
+            if (batcher.isActive()) {
+                return batcher.execute(commands -> commands.exists(rawKey(key))) > 0;
+            }
+            return redisTemplate.hasKey(key);
+        } finally {
+            metrics.record("exists", key, start);
+        }
     }
 
     public Boolean deleteKey(String key) {
-        return redisTemplate.delete(key);
+        long start = System.nanoTime();
+        Boolean deleted;
+        try {
+            deleted = batcher.isActive()
+                    ? batcher.execute(commands -> commands.del(rawKey(key))) > 0
+                    : redisTemplate.delete(key);
+        } finally {
+            metrics.record("del", key, start);
+        }
+        nearCache.invalidate(key);
+        return deleted;
     }
 
     // List operations
     public Long addToListLeft(String key, Object value) {
-        return redisTemplate.opsForList().leftPush(key, value);
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.opsForList().leftPush(key, value);
+        } finally {
+            metrics.record("lpush", key, start);
+        }
     }
 
     public Long addToListRight(String key, Object value) {
-        return redisTemplate.opsForList().rightPush(key, value);
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.opsForList().rightPush(key, value);
+        } finally {
+            metrics.record("rpush", key, start);
+        }
     }
 
     public Object popFromListLeft(String key) {
-        return redisTemplate.opsForList().leftPop(key);
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.opsForList().leftPop(key);
+        } finally {
+            metrics.record("lpop", key, start);
+        }
     }
 
     public Object popFromListRight(String key) {
-        return redisTemplate.opsForList().rightPop(key);
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.opsForList().rightPop(key);
+        } finally {
+            metrics.record("rpop", key, start);
+        }
     }
 
     public List<Object> getList(String key) {
-        return redisTemplate.opsForList().range(key, 0, -1);
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.opsForList().range(key, 0, -1);
+        } finally {
+            metrics.record("lrange", key, start);
+        }
     }
 
     // Hash operations
     public void putHash(String key, String hashKey, Object value) {
-        redisTemplate.opsForHash().put(key, hashKey, value);
+        long start = System.nanoTime();
+        try {
+            if (batcher.isActive()) {
+                batcher.execute(commands -> commands.hset(rawKey(key), rawHashKey(hashKey), rawHashValue(value)));
+            } else {
+                redisTemplate.opsForHash().put(key, hashKey, value);
+            }
+        } finally {
+            metrics.record("hset", key, start);
+        }
+        nearCache.invalidate(key);
     }
 
     public Object getHash(String key, String hashKey) {
-        return redisTemplate.opsForHash().get(key, hashKey);
+        if (nearCache.isCacheable(key)) {
+            return nearCache.getHashField(key, hashKey, () -> timedHashGet(key, hashKey));
+        }
+        return timedHashGet(key, hashKey);
+    }
+
+    private Object timedHashGet(String key, String hashKey) {
+        long start = System.nanoTime();
+        try {
+            if (batcher.isActive()) {
+                return redisTemplate.getHashValueSerializer().deserialize(
+                        batcher.execute(commands -> commands.hget(rawKey(key), rawHashKey(hashKey))));
+            }
+            return redisTemplate.opsForHash().get(key, hashKey);
+        } finally {
+            metrics.record("hget", key, start);
+        }
     }
 
     public Map<Object, Object> getHashAll(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.opsForHash().entries(key);
+        } finally {
+            metrics.record("hgetall", key, start);
+        }
     }
 
     public Long deleteHashFields(String key, Object... hashKeys) {
-        return redisTemplate.opsForHash().delete(key, hashKeys);
+        long start = System.nanoTime();
+        Long deleted;
+        try {
+            deleted = redisTemplate.opsForHash().delete(key, hashKeys);
+        } finally {
+            metrics.record("hdel", key, start);
+        }
+        nearCache.invalidate(key);
+        return deleted;
+    }
+
+    // Paginated reads, bounded replies instead of LRANGE 0 -1 / HGETALL
+    public PageResult<List<Object>> getListPage(String key, long start, int count) {
+        Assert.isTrue(start >= 0 && count > 0, "start must be >= 0 and count > 0");
+        List<Object> items = range(key, start, start + count - 1);
+        if (items == null) {
+            items = List.of();
+        }
+        String next = items.size() < count ? null : String.valueOf(start + count);
+        return new PageResult<>(items, next);
+    }
+
+    public void forEachListWindow(String key, int window, Consumer<List<Object>> consumer) {
+        // A window of 0 would re-read the same range forever
+        Assert.isTrue(window > 0, "window must be > 0");
+        for (long start = 0; ; start += window) {
+            List<Object> items = range(key, start, start + window - 1);
+            if (items == null || items.isEmpty()) {
+                return;
+            }
+            consumer.accept(items);
+            if (items.size() < window) {
+                return;
+            }
+        }
+    }
+
+    private List<Object> range(String key, long start, long end) {
+        long begin = System.nanoTime();
+        try {
+            return redisTemplate.opsForList().range(key, start, end);
+        } finally {
+            metrics.record("lrange", key, begin);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PageResult<Map<Object, Object>> scanHash(String key, String cursor, int count) {
+        Assert.isTrue(count > 0, "count must be > 0");
+        Assert.isTrue(cursor != null && cursor.matches("\\d{1,20}"), "cursor must be an unsigned decimal");
+        // A single HSCAN round trip. Spring's Cursor cannot resume from a client-supplied cursor and
+        // would keep fetching until the end, so the call goes through a script, which works the same
+        // on every driver, pooled or shared connections, and in cluster mode
+        long start = System.nanoTime();
+        List<Object> reply;
+        try {
+            reply = redisTemplate.execute(HSCAN_SCRIPT, RedisSerializer.string(),
+                    (RedisSerializer<List>) (RedisSerializer<?>) RedisSerializer.byteArray(),
+                    List.of(key), cursor, String.valueOf(count));
+        } finally {
+            metrics.record("hscan", key, start);
+        }
+        String next = new String((byte[]) reply.get(0), StandardCharsets.UTF_8);
+        List<byte[]> fieldsAndValues = (List<byte[]>) reply.get(1);
+        Map<Object, Object> entries = new LinkedHashMap<>(fieldsAndValues.size());
+        for (int i = 0; i + 1 < fieldsAndValues.size(); i += 2) {
+            entries.put(redisTemplate.getHashKeySerializer().deserialize(fieldsAndValues.get(i)),
+                    redisTemplate.getHashValueSerializer().deserialize(fieldsAndValues.get(i + 1)));
+        }
+        return new PageResult<>(entries, "0".equals(next) ? null : next);
+    }
+
+    public void forEachHashEntry(String key, int count, BiConsumer<Object, Object> consumer) {
+        Assert.isTrue(count > 0, "count must be > 0");
+        ScanOptions options = ScanOptions.scanOptions().count(count).build();
+        // The cursor fetches lazily, so this timer also covers the time spent in the consumer
+        long start = System.nanoTime();
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(key, options)) {
+            cursor.forEachRemaining(entry -> consumer.accept(entry.getKey(), entry.getValue()));
+        } finally {
+            metrics.record("hscan.stream", key, start);
+        }
+    }
+
+    // Batch operations, pipelined in chunks of app.redis.batch-size commands
+    public List<Boolean> multiSet(List<KeyValueItem> items) {
+        List<Boolean> results = new ArrayList<>(items.size());
+        for (List<KeyValueItem> chunk : chunks(items)) {
+            long start = System.nanoTime();
+            List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    // Operations issued inside the callback share its pipelined connection
+                    ValueOperations<String, Object> ops = redisTemplate.opsForValue();
+                    for (KeyValueItem item : chunk) {
+                        if (item.ttlSeconds() != null && item.ttlSeconds() > 0) {
+                            ops.set(item.key(), item.value(), item.ttlSeconds(), TimeUnit.SECONDS);
+                        } else {
+                            ops.set(item.key(), item.value());
+                        }
+                    }
+                    return null;
+                }
+            });
+            metrics.record("pipeline.set", null, start);
+            replies.forEach(reply -> results.add(isSuccess(reply)));
+            chunk.forEach(item -> nearCache.invalidate(item.key()));
+        }
+        return results;
+    }
+
+    public List<Object> multiGet(List<String> keys) {
+        List<Object> results = new ArrayList<>(keys.size());
+        for (List<String> chunk : chunks(keys)) {
+            long start = System.nanoTime();
+            results.addAll(redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : chunk) {
+                    connection.stringCommands().get(rawKey(key));
+                }
+                return null;
+            }));
+            metrics.record("pipeline.get", null, start);
+        }
+        return results;
+    }
+
+    public List<Boolean> multiDelete(List<String> keys) {
+        List<Boolean> results = new ArrayList<>(keys.size());
+        for (List<String> chunk : chunks(keys)) {
+            long start = System.nanoTime();
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : chunk) {
+                    connection.keyCommands().del(rawKey(key));
+                }
+                return null;
+            });
+            metrics.record("pipeline.del", null, start);
+            replies.forEach(reply -> results.add(isSuccess(reply)));
+            chunk.forEach(nearCache::invalidate);
+        }
+        return results;
+    }
+
+    public List<Boolean> multiPutHash(List<HashFieldItem> items) {
+        List<Boolean> results = new ArrayList<>(items.size());
+        for (List<HashFieldItem> chunk : chunks(items)) {
+            long start = System.nanoTime();
+            List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    HashOperations<String, Object, Object> ops = redisTemplate.opsForHash();
+                    for (HashFieldItem item : chunk) {
+                        ops.put(item.key(), item.hashKey(), item.value());
+                    }
+                    return null;
+                }
+            });
+            metrics.record("pipeline.hset", null, start);
+            // HSET reports false when it overwrote an existing field, the write still succeeded
+            replies.forEach(reply -> results.add(reply != null));
+            chunk.forEach(item -> nearCache.invalidate(item.key()));
+        }
+        return results;
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            chunks.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return chunks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashKey(String hashKey) {
+        return ((RedisSerializer<String>) redisTemplate.getHashKeySerializer()).serialize(hashKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(value);
+    }
+
+    private static boolean isSuccess(Object reply) {
+        if (reply instanceof Boolean success) {
+            return success;
+        }
+        if (reply instanceof Number count) {
+            return count.longValue() > 0;
+        }
+        return reply != null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- KEYS[1] hash
+-- ARGV[1] cursor, ARGV[2] COUNT hint
+-- One HSCAN round trip, returns {next cursor, {field, value, ...}}
+return redis.call('HSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])
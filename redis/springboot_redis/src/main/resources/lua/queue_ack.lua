@@ -0,0 +1,10 @@
+-- KEYS[1] processing list, KEYS[2] lease zset, KEYS[3] message hash, KEYS[4] attempt hash
+-- ARGV[1] id
+-- Returns 0 if the id was no longer held by this consumer, e.g. its lease expired
+if redis.call('LREM', KEYS[1], -1, ARGV[1]) == 0 then
+    return 0
+end
+redis.call('ZREM', KEYS[2], ARGV[1])
+redis.call('HDEL', KEYS[3], ARGV[1])
+redis.call('HDEL', KEYS[4], ARGV[1])
+return 1
@@ -0,0 +1,29 @@
+-- Moves up to ARGV[1] ids from the pending list to the consumer's processing list and leases them
+-- KEYS[1] pending list, KEYS[2] processing list, KEYS[3] lease zset, KEYS[4] message hash,
+-- KEYS[5] attempt hash, KEYS[6] consumer set
+-- ARGV[1] max items, ARGV[2] visibility timeout in ms, ARGV[3] consumer name,
+-- ARGV[4] optional id that BLMOVE already moved to the processing list
+-- Returns id, attempts, payload triples
+local time = redis.call('TIME')
+local deadline = time[1] * 1000 + math.floor(time[2] / 1000) + tonumber(ARGV[2])
+redis.call('SADD', KEYS[6], ARGV[3])
+local result = {}
+local function lease(id)
+    redis.call('ZADD', KEYS[3], deadline, id)
+    result[#result + 1] = id
+    result[#result + 1] = tostring(redis.call('HINCRBY', KEYS[5], id, 1))
+    result[#result + 1] = redis.call('HGET', KEYS[4], id)
+end
+local max = tonumber(ARGV[1])
+if ARGV[4] then
+    lease(ARGV[4])
+    max = max - 1
+end
+for _ = 1, max do
+    local id = redis.call('LMOVE', KEYS[1], KEYS[2], 'RIGHT', 'LEFT')
+    if not id then
+        break
+    end
+    lease(id)
+end
+return result
@@ -0,0 +1,7 @@
+-- KEYS[1] pending list, KEYS[2] message hash
+-- ARGV: id1, payload1, id2, payload2, ...
+for i = 1, #ARGV, 2 do
+    redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])
+    redis.call('LPUSH', KEYS[1], ARGV[i])
+end
+return #ARGV / 2
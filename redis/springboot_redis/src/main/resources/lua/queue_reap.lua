@@ -0,0 +1,30 @@
+-- Reclaims the ids of one processing list whose lease has expired
+-- KEYS[1] processing list, KEYS[2] lease zset, KEYS[3] pending list, KEYS[4] attempt hash,
+-- KEYS[5] dead list
+-- ARGV[1] visibility timeout in ms, ARGV[2] max attempts
+-- Every lease counts as an attempt, so a message whose consumer keeps crashing before it can
+-- ack or requeue is dead-lettered here once it has used up its attempts.
+-- Returns {requeued, dead-lettered}
+local time = redis.call('TIME')
+local now = time[1] * 1000 + math.floor(time[2] / 1000)
+local maxAttempts = tonumber(ARGV[2])
+local requeued = 0
+local dead = 0
+for _, id in ipairs(redis.call('LRANGE', KEYS[1], 0, -1)) do
+    local deadline = redis.call('ZSCORE', KEYS[2], id)
+    if not deadline then
+        -- Moved by BLMOVE but not leased yet, or the consumer died in between: lease it now
+        redis.call('ZADD', KEYS[2], now + tonumber(ARGV[1]), id)
+    elseif tonumber(deadline) <= now then
+        redis.call('LREM', KEYS[1], -1, id)
+        redis.call('ZREM', KEYS[2], id)
+        if tonumber(redis.call('HGET', KEYS[4], id) or '0') >= maxAttempts then
+            redis.call('RPUSH', KEYS[5], id)
+            dead = dead + 1
+        else
+            redis.call('RPUSH', KEYS[3], id)
+            requeued = requeued + 1
+        end
+    end
+end
+return {requeued, dead}
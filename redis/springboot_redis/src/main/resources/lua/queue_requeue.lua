@@ -0,0 +1,9 @@
+-- KEYS[1] processing list, KEYS[2] lease zset, KEYS[3] pending list
+-- ARGV[1] id
+-- Puts the id back at the consuming end of the pending list so it is redelivered first
+if redis.call('LREM', KEYS[1], -1, ARGV[1]) == 0 then
+    return 0
+end
+redis.call('ZREM', KEYS[2], ARGV[1])
+redis.call('RPUSH', KEYS[3], ARGV[1])
+return 1
@@ -0,0 +1,100 @@
+package com.zyk_test.springboot_redis;
+
+import com.zyk_test.springboot_redis.service.RedisService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-key GET/SET throughput of RedisService on a shared connection, on pooled dedicated
+ * connections and with auto-batching, at several concurrency levels. Needs a running Redis:
+ * ./mvnw test -Dtest=LettuceModeBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LettuceModeBenchmarkTest {
+
+    private static final int[] CONCURRENCY = {1, 8, 64, 256};
+    private static final long DURATION_MILLIS = 3_000;
+    private static final int KEYS = 1_000;
+
+    @Nested
+    @SpringBootTest
+    class SharedConnection {
+
+        @Autowired
+        private RedisService redisService;
+
+        @Test
+        void getAndSet() throws Exception {
+            run("shared", redisService);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {"app.redis.share-native-connection=false",
+            "spring.data.redis.lettuce.pool.max-active=256", "spring.data.redis.lettuce.pool.max-idle=256"})
+    class DedicatedConnections {
+
+        @Autowired
+        private RedisService redisService;
+
+        @Test
+        void getAndSet() throws Exception {
+            run("dedicated", redisService);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = "app.redis.auto-batch.enabled=true")
+    class AutoBatching {
+
+        @Autowired
+        private RedisService redisService;
+
+        @Test
+        void getAndSet() throws Exception {
+            run("auto-batch", redisService);
+        }
+    }
+
+    static void run(String label, RedisService redisService) throws Exception {
+        for (int concurrency : CONCURRENCY) {
+            LongAdder ops = new LongAdder();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            for (int t = 0; t < concurrency; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    for (int i = offset; System.nanoTime() < deadline; i += concurrency) {
+                        String key = "bench:lettuce:" + (i % KEYS);
+                        redisService.setString(key, "value" + i);
+                        redisService.getString(key);
+                        ops.add(2);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(DURATION_MILLIS * 2, TimeUnit.MILLISECONDS)).isTrue();
+            System.out.printf("%s, %d threads: %,.0f ops/s%n", label, concurrency, ops.sum() * 1000.0 / DURATION_MILLIS);
+            assertThat(ops.sum()).isPositive();
+        }
+
+        // Clean up
+        List<String> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            keys.add("bench:lettuce:" + i);
+        }
+        redisService.multiDelete(keys);
+    }
+}
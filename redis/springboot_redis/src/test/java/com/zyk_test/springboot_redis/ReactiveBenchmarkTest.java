@@ -0,0 +1,44 @@
+package com.zyk_test.springboot_redis;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Servlet stack against the WebFlux stack on the same local Redis and the same load as
+ * {@link VirtualThreadBenchmarkTest}. Needs a running Redis:
+ * ./mvnw test -Dtest=ReactiveBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReactiveBenchmarkTest {
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    class Servlet {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void ping() {
+            VirtualThreadBenchmarkTest.run("servlet", port);
+        }
+    }
+
+    @Nested
+    @ActiveProfiles("reactive")
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    class Reactive {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void ping() {
+            VirtualThreadBenchmarkTest.run("webflux", port);
+        }
+    }
+}
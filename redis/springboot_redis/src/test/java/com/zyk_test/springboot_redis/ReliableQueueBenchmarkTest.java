@@ -0,0 +1,98 @@
+package com.zyk_test.springboot_redis;
+
+import com.zyk_test.springboot_redis.queue.QueueMessage;
+import com.zyk_test.springboot_redis.queue.ReliableQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of ReliableQueue at several consumer and batch sizes, and how long an unacked
+ * message takes to be redelivered. Needs a running Redis:
+ * ./mvnw test -Dtest=ReliableQueueBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "app.redis.queue.visibility-timeout=1s",
+        "app.redis.queue.reaper-interval=100ms",
+        "spring.data.redis.lettuce.pool.max-active=64"})
+class ReliableQueueBenchmarkTest {
+
+    private static final String QUEUE = "bench-reliable";
+    private static final int MESSAGES = 50_000;
+
+    @Autowired
+    private ReliableQueue reliableQueue;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // Clean up
+        Set<String> keys = stringRedisTemplate.keys("queue:{" + QUEUE + "}:*");
+        if (keys != null && !keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+
+    @Test
+    void throughput() throws Exception {
+        for (int consumers : new int[]{1, 8, 32}) {
+            for (int batchSize : new int[]{1, 10, 100}) {
+                List<Object> payloads = new ArrayList<>(1000);
+                for (int i = 0; i < 1000; i++) {
+                    payloads.add("job-" + i);
+                }
+                for (int i = 0; i < MESSAGES; i += payloads.size()) {
+                    reliableQueue.enqueueAll(QUEUE, payloads);
+                }
+                CountDownLatch done = new CountDownLatch(MESSAGES);
+                long begin = System.nanoTime();
+                try (ReliableQueue.Subscription ignored = reliableQueue.subscribe(QUEUE, consumers, batchSize,
+                        message -> done.countDown())) {
+                    assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+                }
+                double seconds = (System.nanoTime() - begin) / 1e9;
+                System.out.printf("%d consumers, batch %d: %,.0f msg/s%n", consumers, batchSize, MESSAGES / seconds);
+            }
+        }
+    }
+
+    @Test
+    void redeliveryLatency() throws Exception {
+        long[] latencies = new long[20];
+        for (int i = 0; i < latencies.length; i++) {
+            reliableQueue.enqueue(QUEUE, "job-" + i);
+            // Take the message and never ack it
+            QueueMessage lost = reliableQueue.pop(QUEUE, "crashed", 1).get(0);
+            long begin = System.nanoTime();
+            CountDownLatch redelivered = new CountDownLatch(1);
+            String[] redeliveredId = new String[1];
+            try (ReliableQueue.Subscription ignored = reliableQueue.subscribe(QUEUE, 1, 1, message -> {
+                redeliveredId[0] = message.id();
+                redelivered.countDown();
+            })) {
+                assertThat(redelivered.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            latencies[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            assertThat(redeliveredId[0]).isEqualTo(lost.id());
+        }
+        Arrays.sort(latencies);
+        // Expected: visibility timeout plus up to one reaper interval
+        System.out.printf("redelivery with 1s visibility timeout: p50 %dms, max %dms%n",
+                latencies[latencies.length / 2], latencies[latencies.length - 1]);
+    }
+}
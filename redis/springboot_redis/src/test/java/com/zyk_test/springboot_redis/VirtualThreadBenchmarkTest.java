@@ -0,0 +1,59 @@
+package com.zyk_test.springboot_redis;
+
+import com.zyk_test.springboot_redis.benchmark.HttpLoad;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares Tomcat on platform threads with Tomcat on virtual threads while 5k
+ * connections keep calling the blocking /redis/ping endpoint. Needs a running Redis:
+ * ./mvnw test -Dtest=VirtualThreadBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmarkTest {
+
+    private static final int CONNECTIONS = 5_000;
+    private static final int REQUESTS_PER_CONNECTION = 20;
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void ping() {
+            run("platform threads", port);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void ping() {
+            run("virtual threads", port);
+        }
+    }
+
+    static void run(String label, int port) {
+        HttpLoad.Result result = HttpLoad.run(URI.create("http://localhost:" + port + "/redis/ping"),
+                CONNECTIONS, REQUESTS_PER_CONNECTION);
+        result.print(label);
+        assertThat(result.errors()).isLessThan(result.requests() / 100);
+    }
+}
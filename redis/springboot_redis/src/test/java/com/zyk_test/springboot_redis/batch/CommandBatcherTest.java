@@ -0,0 +1,67 @@
+package com.zyk_test.springboot_redis.batch;
+
+import com.zyk_test.springboot_redis.service.RedisService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.redis.auto-batch.enabled=true")
+class CommandBatcherTest {
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private CommandBatcher batcher;
+
+    @Test
+    void singleKeyOperationsShouldGoThroughBatcher() {
+        String key = "test:batch:string";
+        String hashKey = "test:batch:hash";
+        assertThat(batcher.isActive()).isTrue();
+
+        redisService.setString(key, Map.of("name", "testValue"));
+        assertThat(redisService.getString(key)).isEqualTo(Map.of("name", "testValue"));
+        assertThat(redisService.hasKey(key)).isTrue();
+
+        redisService.putHash(hashKey, "field1", "value1");
+        assertThat(redisService.getHash(hashKey, "field1")).isEqualTo("value1");
+
+        // Clean up
+        assertThat(redisService.deleteKey(key)).isTrue();
+        assertThat(redisService.deleteKey(hashKey)).isTrue();
+        assertThat(redisService.hasKey(key)).isFalse();
+    }
+
+    @Test
+    void concurrentCallersShouldEachGetTheirOwnReply() {
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String key = "test:batch:concurrent:" + i;
+            String value = "value" + i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                redisService.setString(key, value, 30, TimeUnit.SECONDS);
+                return redisService.getString(key);
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).join()).isEqualTo("value" + i);
+        }
+
+        // Clean up
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            keys.add("test:batch:concurrent:" + i);
+        }
+        redisService.multiDelete(keys);
+    }
+}
@@ -0,0 +1,71 @@
+package com.zyk_test.springboot_redis.benchmark;
+
+import com.zyk_test.springboot_redis.serializer.CompressingRedisSerializer;
+import com.zyk_test.springboot_redis.serializer.ValueSerializerType;
+import com.zyk_test.springboot_redis.serializer.ValueSerializers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of LZ4 compression on multi-KB JSON values, compared with the plain JSON serializer.
+ * The compression ratio of each payload is printed during setup.
+ * Run {@link #main} on the test classpath; results are written to target/compression-benchmark.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"plain", "lz4"})
+    private String codec;
+
+    @Param({"10", "50", "200"})
+    private int users;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        RedisSerializer<Object> json = ValueSerializers.create(ValueSerializerType.JSON);
+        serializer = "lz4".equals(codec) ? new CompressingRedisSerializer(json, 1024) : json;
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            list.add(ValueSerializerBenchmark.user(i));
+        }
+        value = list;
+        encoded = serializer.serialize(value);
+        int plainSize = json.serialize(value).length;
+        System.out.printf("%n%s/%d users: %d -> %d bytes, ratio %.2f%n",
+                codec, users, plainSize, encoded.length, (double) plainSize / encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CompressionBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/compression-benchmark.json")
+                .build()).run();
+    }
+}
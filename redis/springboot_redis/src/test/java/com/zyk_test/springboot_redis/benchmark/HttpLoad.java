@@ -0,0 +1,65 @@
+package com.zyk_test.springboot_redis.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop HTTP load: each connection sends its requests one after another and the
+ * connections run concurrently on virtual threads.
+ */
+public final class HttpLoad {
+
+    private HttpLoad() {
+    }
+
+    public record Result(int requests, long elapsedNanos, long p50Nanos, long p99Nanos, int errors) {
+
+        public double throughput() {
+            return requests / (elapsedNanos / 1e9);
+        }
+
+        public void print(String label) {
+            System.out.printf("%s: %d requests in %d ms, %.0f req/s, p50 %.1f ms, p99 %.1f ms, errors %d%n",
+                    label, requests, elapsedNanos / 1_000_000, throughput(), p50Nanos / 1e6, p99Nanos / 1e6, errors);
+        }
+    }
+
+    public static Result run(URI uri, int connections, int requestsPerConnection) {
+        long[] latencies = new long[connections * requestsPerConnection];
+        AtomicInteger index = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long begin = System.nanoTime();
+        // Each client task owns its own HttpClient so every task keeps its own connection
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                clients.submit(() -> {
+                    try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+                        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+                        for (int j = 0; j < requestsPerConnection; j++) {
+                            long start = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            latencies[index.getAndIncrement()] = System.nanoTime() - start;
+                        }
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        Arrays.sort(latencies);
+        return new Result(latencies.length, elapsed, latencies[latencies.length / 2],
+                latencies[(int) (latencies.length * 0.99)], errors.get());
+    }
+}
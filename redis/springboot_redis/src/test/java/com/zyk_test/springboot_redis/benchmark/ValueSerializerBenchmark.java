@@ -0,0 +1,91 @@
+package com.zyk_test.springboot_redis.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zyk_test.springboot_redis.serializer.ValueSerializerType;
+import com.zyk_test.springboot_redis.serializer.ValueSerializers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of each value serializer for typical payloads. RAW only accepts text,
+ * so it is measured on the JSON text of the structured payloads.
+ * Run {@link #main} on the test classpath; results are written to target/value-serializer-benchmark.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueSerializerBenchmark {
+
+    @Param({"JDK", "JSON", "SMILE", "RAW"})
+    private ValueSerializerType type;
+
+    @Param({"string", "user", "userList"})
+    private String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        serializer = ValueSerializers.create(type);
+        value = switch (payload) {
+            case "string" -> "user:session:7f3a9c2e-5d41-4b0e-9a6b-1c2d3e4f5a6b";
+            case "user" -> user(1);
+            default -> {
+                List<Object> users = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    users.add(user(i));
+                }
+                yield users;
+            }
+        };
+        if (type == ValueSerializerType.RAW && !(value instanceof String)) {
+            value = new ObjectMapper().writeValueAsString(value);
+        }
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s/%s encoded size: %d bytes%n", type, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    static Map<String, Object> user(int id) {
+        Map<String, Object> user = new HashMap<>();
+        user.put("id", 1000L + id);
+        user.put("nickName", "user_" + id);
+        user.put("icon", "/imgs/icons/" + id + ".png");
+        user.put("city", "Hangzhou");
+        user.put("fans", 120 + id);
+        user.put("followee", 35);
+        user.put("introduce", "Coffee, hiking and the occasional shop review.");
+        return user;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ValueSerializerBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/value-serializer-benchmark.json")
+                .build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.zyk_test.springboot_redis.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zyk_test.springboot_redis.serializer.ValueSerializerType;
+import com.zyk_test.springboot_redis.serializer.ValueSerializers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis MEMORY USAGE per value for each serializer, using the benchmark payloads.
+ * Needs a running Redis: ./mvnw test -Dtest=ValueSerializerMemoryTest -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ValueSerializerMemoryTest {
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Test
+    void memoryPerValue() throws Exception {
+        List<Object> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(ValueSerializerBenchmark.user(i));
+        }
+        Object[] payloads = {"user:session:7f3a9c2e-5d41-4b0e-9a6b-1c2d3e4f5a6b",
+                ValueSerializerBenchmark.user(1), users};
+        String[] names = {"string", "user", "userList"};
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            for (ValueSerializerType type : ValueSerializerType.values()) {
+                RedisSerializer<Object> serializer = ValueSerializers.create(type);
+                for (int i = 0; i < payloads.length; i++) {
+                    Object value = payloads[i];
+                    if (type == ValueSerializerType.RAW && !(value instanceof String)) {
+                        value = objectMapper.writeValueAsString(value);
+                    }
+                    byte[] key = ("benchmark:serializer:" + type + ":" + names[i]).getBytes(StandardCharsets.UTF_8);
+                    byte[] encoded = serializer.serialize(value);
+                    connection.stringCommands().set(key, encoded);
+                    Object memory = connection.execute("MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), key);
+                    System.out.printf("%-5s %-8s encoded %5d bytes, redis %s bytes%n",
+                            type, names[i], encoded.length, memory);
+                    connection.keyCommands().del(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.zyk_test.springboot_redis.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exercises the local store directly; no Redis connection is opened.
+ */
+class NearCacheBoundTest {
+
+    @Test
+    void hashFieldsShouldCountAgainstMaxSize() {
+        NearCache nearCache = new NearCache(null, true, new String[]{"test:near:"}, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 20; i++) {
+            String field = "field" + i;
+            nearCache.getHashField("test:near:big", field, () -> {
+                loads.incrementAndGet();
+                return field;
+            });
+        }
+
+        // The hash was evicted once its fields outweighed max-size, only the later fields remain
+        nearCache.getHashField("test:near:big", "field0", () -> {
+            loads.incrementAndGet();
+            return "field0";
+        });
+        assertThat(loads).hasValue(21);
+        nearCache.getHashField("test:near:big", "field19", () -> {
+            loads.incrementAndGet();
+            return "field19";
+        });
+        assertThat(loads).hasValue(21);
+    }
+
+    @Test
+    void smallHashShouldBeServedLocally() {
+        NearCache nearCache = new NearCache(null, true, new String[]{"test:near:"}, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5; i++) {
+                String field = "field" + i;
+                assertThat(nearCache.getHashField("test:near:small", field, () -> {
+                    loads.incrementAndGet();
+                    return field;
+                })).isEqualTo(field);
+            }
+        }
+
+        assertThat(loads).hasValue(5);
+        assertThat((long) nearCache.stats().get("hits")).isEqualTo(10);
+    }
+}
@@ -0,0 +1,97 @@
+package com.zyk_test.springboot_redis.cache;
+
+import com.zyk_test.springboot_redis.service.RedisService;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "app.redis.near-cache.enabled=true",
+        "app.redis.near-cache.prefixes=test:near:",
+        "app.redis.value-serializer=json"})
+class NearCacheTest {
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Value("${spring.data.redis.host}")
+    private String host;
+
+    @Value("${spring.data.redis.port}")
+    private int port;
+
+    private RedisClient otherClient;
+    private StatefulRedisConnection<String, String> otherConnection;
+
+    @BeforeEach
+    void setUp() {
+        // A second client that knows nothing about the near cache
+        otherClient = RedisClient.create(RedisURI.create(host, port));
+        otherConnection = otherClient.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherConnection.close();
+        otherClient.shutdown();
+    }
+
+    @Test
+    void writeFromAnotherClientShouldInvalidateString() {
+        String key = "test:near:string";
+        redisService.setString(key, "value1");
+
+        // Repeated reads are served locally once the invalidation for our own write has passed
+        long hits = (long) nearCache.stats().get("hits");
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() -> {
+            assertThat(redisService.getString(key)).isEqualTo("value1");
+            assertThat((long) nearCache.stats().get("hits")).isGreaterThan(hits);
+        });
+
+        // The JSON serializer stores strings as JSON text
+        otherConnection.sync().set(key, "\"value2\"");
+
+        await().atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(redisService.getString(key)).isEqualTo("value2"));
+
+        // Clean up
+        redisService.deleteKey(key);
+    }
+
+    @Test
+    void writeFromAnotherClientShouldInvalidateHash() {
+        String key = "test:near:hash";
+        redisService.deleteKey(key);
+        redisService.putHash(key, "field1", "value1");
+        assertThat(redisService.getHash(key, "field1")).isEqualTo("value1");
+
+        otherConnection.sync().hset(key, "field1", "\"value2\"");
+
+        await().atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(redisService.getHash(key, "field1")).isEqualTo("value2"));
+        assertThat((long) nearCache.stats().get("invalidations")).isPositive();
+
+        // Clean up
+        redisService.deleteKey(key);
+    }
+
+    @Test
+    void keysOutsideConfiguredPrefixesShouldNotBeCached() {
+        assertThat(nearCache.isCacheable("test:near:key")).isTrue();
+        assertThat(nearCache.isCacheable("test:other:key")).isFalse();
+    }
+}
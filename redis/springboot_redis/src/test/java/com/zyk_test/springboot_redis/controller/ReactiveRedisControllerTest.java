@@ -0,0 +1,88 @@
+package com.zyk_test.springboot_redis.controller;
+
+import com.zyk_test.springboot_redis.service.RedisService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveRedisControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Test
+    void setStringShouldStoreValue() {
+        // Clean up any existing data
+        redisService.deleteKey("testKey");
+
+        // When & Then
+        webTestClient.post().uri("/redis/string?key=testKey&value=testValue")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("String value set successfully");
+        assertThat(redisService.getString("testKey")).isEqualTo("testValue");
+
+        // Clean up
+        redisService.deleteKey("testKey");
+    }
+
+    @Test
+    void getListShouldReturnWholeListAcrossWindows() {
+        // Given
+        redisService.deleteKey("testList");
+        for (int i = 0; i < 1200; i++) {
+            redisService.addToListRight("testList", "value" + i);
+        }
+
+        // When & Then
+        webTestClient.get().uri("/redis/list/testList")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Object.class).hasSize(1200);
+
+        // Clean up
+        redisService.deleteKey("testList");
+    }
+
+    @Test
+    void streamHashShouldEmitOneLinePerField() {
+        // Given
+        redisService.deleteKey("testHash");
+        redisService.putHash("testHash", "field1", "value1");
+        redisService.putHash("testHash", "field2", "value2");
+
+        // When & Then
+        webTestClient.get().uri("/redis/stream/hash/testHash")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Object.class).hasSize(2);
+
+        // Clean up
+        redisService.deleteKey("testHash");
+    }
+
+    @Test
+    void nonPositiveOrOversizedWindowShouldBeRejected() {
+        webTestClient.get().uri("/redis/stream/list/testList?window=0")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/redis/stream/hash/testHash?count=" + (PageLimits.MAX_PAGE_SIZE + 1))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
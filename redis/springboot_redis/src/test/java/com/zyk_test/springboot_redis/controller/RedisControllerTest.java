@@ -6,13 +6,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -171,4 +174,76 @@ class RedisControllerTest {
         // Clean up
         redisService.deleteKey("testHash");
     }
-}
\ No newline at end of file
+
+    @Test
+    void batchSetAndGetShouldReturnResultsInOrder() throws Exception {
+        // Clean up any existing data
+        redisService.deleteKey("testBatch1");
+        redisService.deleteKey("testBatch2");
+
+        // When & Then
+        mockMvc.perform(post("/redis/batch/string/set")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"key\":\"testBatch1\",\"value\":\"value1\",\"ttlSeconds\":60},"
+                                + "{\"key\":\"testBatch2\",\"value\":\"value2\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[true,true]"));
+
+        mockMvc.perform(post("/redis/batch/string/get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"testBatch2\",\"testBatchMissing\",\"testBatch1\"]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"value2\",null,\"value1\"]"));
+
+        mockMvc.perform(post("/redis/batch/string/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"testBatch1\",\"testBatch2\"]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[true,true]"));
+    }
+
+    @Test
+    void streamListShouldWriteWholeListAsJsonArray() throws Exception {
+        // Given
+        redisService.deleteKey("testStreamList");
+        redisService.addToListRight("testStreamList", "value1");
+        redisService.addToListRight("testStreamList", "value2");
+        redisService.addToListRight("testStreamList", "value3");
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/redis/stream/list/testStreamList?window=2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"value1\",\"value2\",\"value3\"]"));
+
+        // Clean up
+        redisService.deleteKey("testStreamList");
+    }
+
+    @Test
+    void nonPositiveOrOversizedWindowShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/redis/stream/list/testStreamList?window=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/redis/stream/hash/testStreamHash?count=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/redis/page/list/testStreamList?count=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/redis/page/list/testStreamList?start=-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/redis/scan/hash/testStreamHash?count=" + (PageLimits.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void nonNumericCursorShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/redis/scan/hash/testStreamHash?cursor=abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/redis/scan/hash/testStreamHash?cursor=-1"))
+                .andExpect(status().isBadRequest());
+        // One past 2^64 - 1
+        mockMvc.perform(get("/redis/scan/hash/testStreamHash?cursor=18446744073709551616"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,68 @@
+package com.zyk_test.springboot_redis.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void timersShouldBeTaggedByOperationAndPrefix() {
+        RedisMetrics metrics = new RedisMetrics(registry, Duration.ofSeconds(1), 8, 10);
+
+        metrics.record("get", "user:1", System.nanoTime());
+        metrics.record("get", "user:2", System.nanoTime());
+        metrics.record("set", "session:abc", System.nanoTime());
+        metrics.record("ping", null, System.nanoTime());
+        metrics.record("get", "plainkey", System.nanoTime());
+
+        assertThat(timer("get", "user").count()).isEqualTo(2);
+        assertThat(timer("set", "session").count()).isEqualTo(1);
+        assertThat(timer("ping", "none").count()).isEqualTo(1);
+        assertThat(timer("get", "none").count()).isEqualTo(1);
+        assertThat(registry.find(RedisMetrics.METRIC_NAME).tag("prefix", "user:1").timer()).isNull();
+    }
+
+    @Test
+    void prefixesBeyondLimitShouldBeTaggedOther() {
+        RedisMetrics metrics = new RedisMetrics(registry, Duration.ofSeconds(1), 8, 2);
+
+        metrics.record("get", "a:1", System.nanoTime());
+        metrics.record("get", "b:1", System.nanoTime());
+        metrics.record("get", "c:1", System.nanoTime());
+        metrics.record("get", "d:1", System.nanoTime());
+
+        assertThat(timer("get", "other").count()).isEqualTo(2);
+        assertThat(registry.find(RedisMetrics.METRIC_NAME).timers()).hasSize(3);
+    }
+
+    @Test
+    void slowCommandsShouldBeKeptInRingBuffer() {
+        RedisMetrics metrics = new RedisMetrics(registry, Duration.ofMillis(1), 3, 10);
+        long slowStart = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+        metrics.record("get", "user:fast", System.nanoTime());
+        for (int i = 0; i < 5; i++) {
+            metrics.record("get", "user:" + i, slowStart);
+        }
+
+        assertThat(metrics.slowCommands())
+                .extracting(SlowCommand::key)
+                .containsExactly("user:4", "user:3", "user:2");
+        assertThat(metrics.slowCommands().get(0).durationMicros()).isGreaterThanOrEqualTo(5000);
+
+        metrics.clearSlowCommands();
+        assertThat(metrics.slowCommands()).isEmpty();
+    }
+
+    private Timer timer(String operation, String prefix) {
+        return registry.get(RedisMetrics.METRIC_NAME).tag("operation", operation).tag("prefix", prefix).timer();
+    }
+}
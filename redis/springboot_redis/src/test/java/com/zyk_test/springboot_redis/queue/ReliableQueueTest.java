@@ -0,0 +1,144 @@
+package com.zyk_test.springboot_redis.queue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "app.redis.queue.visibility-timeout=500ms",
+        "app.redis.queue.block-timeout=200ms",
+        "app.redis.queue.reaper-interval=100ms",
+        "app.redis.queue.max-attempts=2"})
+class ReliableQueueTest {
+
+    private static final String QUEUE = "test-reliable";
+
+    @Autowired
+    private ReliableQueue reliableQueue;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // Clean up
+        Set<String> keys = stringRedisTemplate.keys("queue:{" + QUEUE + "}:*");
+        if (keys != null && !keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+
+    @Test
+    void batchPopShouldLeaseInFifoOrderAndAckShouldRemove() {
+        reliableQueue.enqueueAll(QUEUE, List.of("a", "b", "c"));
+
+        List<QueueMessage> messages = reliableQueue.pop(QUEUE, "c1", 2);
+
+        assertThat(messages).extracting(QueueMessage::payload).containsExactly("a", "b");
+        assertThat(messages).extracting(QueueMessage::attempts).containsOnly(1);
+        assertThat(reliableQueue.stats(QUEUE)).containsEntry("pending", 1L).containsEntry("inFlight", 2L);
+
+        assertThat(reliableQueue.ack(QUEUE, "c1", messages.get(0).id())).isTrue();
+        assertThat(reliableQueue.ack(QUEUE, "c1", messages.get(0).id())).isFalse();
+        assertThat(reliableQueue.stats(QUEUE)).containsEntry("inFlight", 1L);
+    }
+
+    @Test
+    void requeuedMessageShouldBeRedeliveredFirst() {
+        reliableQueue.enqueueAll(QUEUE, List.of("a", "b"));
+        QueueMessage first = reliableQueue.pop(QUEUE, "c1", 1).get(0);
+
+        assertThat(reliableQueue.requeue(QUEUE, "c1", first.id())).isTrue();
+
+        QueueMessage again = reliableQueue.popBlocking(QUEUE, "c2", 1).get(0);
+        assertThat(again.id()).isEqualTo(first.id());
+        assertThat(again.attempts()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredLeaseShouldBeRequeuedByReaper() {
+        String id = reliableQueue.enqueue(QUEUE, Map.of("order", 42));
+        // The consumer takes the message and dies without acking it
+        reliableQueue.pop(QUEUE, "dead-consumer", 1);
+        assertThat(reliableQueue.reap(QUEUE)).isZero();
+
+        await().atMost(Duration.ofSeconds(3)).until(() -> reliableQueue.reap(QUEUE) == 1);
+
+        QueueMessage redelivered = reliableQueue.pop(QUEUE, "c1", 1).get(0);
+        assertThat(redelivered.id()).isEqualTo(id);
+        assertThat(redelivered.payload()).isEqualTo(Map.of("order", 42));
+    }
+
+    @Test
+    void messageWhoseConsumerKeepsCrashingShouldBeDeadLetteredByReaper() {
+        reliableQueue.enqueue(QUEUE, "crashes-consumer");
+        // Each consumer leases the message and dies without acking or requeueing it
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            assertThat(reliableQueue.pop(QUEUE, "dead-consumer-" + attempt, 1)).hasSize(1);
+            String consumer = "dead-consumer-" + attempt;
+            await().atMost(Duration.ofSeconds(3)).until(() -> {
+                reliableQueue.reap(QUEUE);
+                return stringRedisTemplate.opsForList().size("queue:{" + QUEUE + "}:processing:" + consumer) == 0;
+            });
+        }
+
+        assertThat(reliableQueue.stats(QUEUE))
+                .containsEntry("pending", 0L)
+                .containsEntry("inFlight", 0L)
+                .containsEntry("dead", 1L);
+    }
+
+    @Test
+    void closeShouldWaitForConsumersToStop() {
+        AtomicInteger running = new AtomicInteger();
+        ReliableQueue.Subscription subscription = reliableQueue.subscribe(QUEUE, 2, 1, message -> {
+            running.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        reliableQueue.enqueueAll(QUEUE, List.of("a", "b"));
+        await().atMost(Duration.ofSeconds(3)).until(() -> running.get() > 0);
+
+        subscription.close();
+
+        assertThat(running).hasValue(0);
+    }
+
+    @Test
+    void subscriptionShouldProcessAllAndDeadLetterPoisonMessages() {
+        Map<Object, Integer> handled = new ConcurrentHashMap<>();
+        reliableQueue.enqueueAll(QUEUE, List.of("ok1", "ok2", "poison", "ok3"));
+
+        try (ReliableQueue.Subscription ignored = reliableQueue.subscribe(QUEUE, 2, 2, message -> {
+            handled.merge(message.payload(), 1, Integer::sum);
+            if ("poison".equals(message.payload())) {
+                throw new IllegalStateException("cannot handle");
+            }
+        })) {
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+                assertThat(reliableQueue.stats(QUEUE))
+                        .containsEntry("pending", 0L)
+                        .containsEntry("inFlight", 0L)
+                        .containsEntry("dead", 1L);
+            });
+        }
+
+        assertThat(handled).containsEntry("ok1", 1).containsEntry("ok2", 1).containsEntry("ok3", 1)
+                .containsEntry("poison", 2);
+    }
+}
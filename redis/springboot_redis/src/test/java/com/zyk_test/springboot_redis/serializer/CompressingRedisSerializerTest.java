@@ -0,0 +1,75 @@
+package com.zyk_test.springboot_redis.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressingRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = ValueSerializers.create(ValueSerializerType.JSON);
+    private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(json, 1024);
+
+    @Test
+    void smallValueShouldBeStoredAsIs() {
+        assertThat(serializer.serialize("testValue")).isEqualTo(json.serialize("testValue"));
+    }
+
+    @Test
+    void largeValueShouldBeCompressedAndRoundTrip() {
+        String value = "{\"name\":\"testValue\",\"count\":10}".repeat(200);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertThat(bytes[0]).isEqualTo(CompressingRedisSerializer.HEADER);
+        assertThat(bytes.length).isLessThan(json.serialize(value).length / 4);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+
+    @Test
+    void incompressibleValueShouldBeStoredAsIs() {
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+        CompressingRedisSerializer raw = new CompressingRedisSerializer(
+                ValueSerializers.create(ValueSerializerType.RAW), 1024);
+
+        byte[] bytes = raw.serialize(random);
+
+        assertThat(bytes[0]).isNotEqualTo(CompressingRedisSerializer.HEADER);
+        assertThat(raw.deserialize(bytes)).isEqualTo(random);
+    }
+
+    @Test
+    void uncompressedValuesShouldStayReadable() {
+        for (ValueSerializerType type : ValueSerializerType.values()) {
+            RedisSerializer<Object> plain = ValueSerializers.create(type);
+            CompressingRedisSerializer compressing = new CompressingRedisSerializer(plain, 1);
+
+            assertThat(compressing.deserialize(plain.serialize("testValue"))).isEqualTo("testValue");
+        }
+    }
+
+    @Test
+    void lengthMismatchShouldBeRejected() {
+        byte[] bytes = serializer.serialize("{\"name\":\"testValue\",\"count\":10}".repeat(200));
+        // Claim more bytes than the block decompresses to
+        ByteBuffer.wrap(bytes, 1, 4).putInt(ByteBuffer.wrap(bytes, 1, 4).getInt() + 100);
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("header says");
+    }
+
+    @Test
+    void corruptHeaderShouldBeRejected() {
+        byte[] bytes = {CompressingRedisSerializer.HEADER, 0x7F, 0, 0, 0, 1, 2, 3};
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.zyk_test.springboot_redis.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValueSerializersTest {
+
+    @ParameterizedTest
+    @EnumSource(ValueSerializerType.class)
+    void stringShouldRoundTrip(ValueSerializerType type) {
+        RedisSerializer<Object> serializer = ValueSerializers.create(type);
+
+        Object value = serializer.deserialize(serializer.serialize("testValue"));
+
+        assertThat(value).isEqualTo("testValue");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ValueSerializerType.class, names = {"JDK", "JSON", "SMILE"})
+    void objectShouldRoundTripWithItsType(ValueSerializerType type) {
+        RedisSerializer<Object> serializer = ValueSerializers.create(type);
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", 42L);
+        map.put("tags", List.of("a", "b"));
+
+        Object value = serializer.deserialize(serializer.serialize(map));
+
+        assertThat(value).isInstanceOf(HashMap.class).isEqualTo(map);
+    }
+
+    @Test
+    void rawShouldKeepBytesAndStringsApart() {
+        RedisSerializer<Object> serializer = ValueSerializers.create(ValueSerializerType.RAW);
+        byte[] bytes = {1, 2, 3};
+
+        assertThat(serializer.deserialize(serializer.serialize(bytes))).isEqualTo(bytes);
+        assertThat(serializer.serialize("abc")).hasSize(4);
+        assertThatThrownBy(() -> serializer.serialize(42))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void smileShouldBeSmallerThanJdk() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "testValue");
+        map.put("count", 10);
+
+        int jdk = ValueSerializers.create(ValueSerializerType.JDK).serialize(map).length;
+        int smile = ValueSerializers.create(ValueSerializerType.SMILE).serialize(map).length;
+
+        assertThat(smile).isLessThan(jdk);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ValueSerializerType.class, names = {"JSON", "SMILE", "RAW"})
+    void jdkValuesShouldStayReadableAfterSwitching(ValueSerializerType type) {
+        byte[] written = ValueSerializers.create(ValueSerializerType.JDK).serialize(Map.of("id", 42L));
+        RedisSerializer<Object> serializer = ValueSerializers.create(type);
+
+        assertThat(serializer.deserialize(written)).isEqualTo(Map.of("id", 42L));
+        assertThat(serializer.deserialize(serializer.serialize("testValue"))).isEqualTo("testValue");
+    }
+}
@@ -0,0 +1,23 @@
+package com.zyk_test.springboot_redis.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisServiceBatchSizeTest {
+
+    @Test
+    void nonPositiveBatchSizeShouldBeRejected() {
+        RedisService service = new RedisService();
+        ReflectionTestUtils.setField(service, "batchSize", 0);
+
+        assertThatThrownBy(service::validateBatchSize)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("app.redis.batch-size");
+
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        assertThatCode(service::validateBatchSize).doesNotThrowAnyException();
+    }
+}
@@ -1,9 +1,14 @@
 package com.zyk_test.springboot_redis.service;
 
+import com.zyk_test.springboot_redis.dto.HashFieldItem;
+import com.zyk_test.springboot_redis.dto.KeyValueItem;
+import com.zyk_test.springboot_redis.dto.PageResult;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -163,4 +168,104 @@ class RedisServiceTest {
         // Clean up
         redisService.deleteKey(key);
     }
+
+    @Test
+    void testBatchOperations() {
+        List<KeyValueItem> items = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            String key = "test:batch:key:" + i;
+            keys.add(key);
+            items.add(new KeyValueItem(key, "value" + i, i % 2 == 0 ? 60L : null));
+        }
+
+        // Test multi set across several chunks
+        List<Boolean> setResults = redisService.multiSet(items);
+        assertThat(setResults).hasSize(1200).containsOnly(true);
+
+        // Test multi get keeps request order and returns null for missing keys
+        List<String> getKeys = new ArrayList<>(keys);
+        getKeys.add(1, "test:batch:missing");
+        List<Object> values = redisService.multiGet(getKeys);
+        assertThat(values).hasSize(1201);
+        assertThat(values.get(0)).isEqualTo("value0");
+        assertThat(values.get(1)).isNull();
+        assertThat(values.get(1200)).isEqualTo("value1199");
+
+        // Test multi delete
+        List<Boolean> deleteResults = redisService.multiDelete(getKeys);
+        assertThat(deleteResults.get(0)).isTrue();
+        assertThat(deleteResults.get(1)).isFalse();
+        assertThat(redisService.hasKey("test:batch:key:0")).isFalse();
+    }
+
+    @Test
+    void testBatchHashPut() {
+        String key = "test:batch:hash";
+        redisService.deleteKey(key);
+
+        List<Boolean> results = redisService.multiPutHash(List.of(
+                new HashFieldItem(key, "field1", "value1"),
+                new HashFieldItem(key, "field2", "value2")));
+
+        assertThat(results).containsExactly(true, true);
+        assertThat(redisService.getHashAll(key))
+                .containsEntry("field1", "value1")
+                .containsEntry("field2", "value2");
+
+        // Clean up
+        redisService.deleteKey(key);
+    }
+
+    @Test
+    void testListPagination() {
+        String key = "test:list:page:key";
+        redisService.deleteKey(key);
+        for (int i = 0; i < 25; i++) {
+            redisService.addToListRight(key, "value" + i);
+        }
+
+        // Test pages of ten until the list is exhausted
+        PageResult<List<Object>> page = redisService.getListPage(key, 0, 10);
+        assertThat(page.content()).hasSize(10).startsWith("value0");
+        assertThat(page.next()).isEqualTo("10");
+        page = redisService.getListPage(key, 20, 10);
+        assertThat(page.content()).containsExactly("value20", "value21", "value22", "value23", "value24");
+        assertThat(page.next()).isNull();
+
+        // Test window iteration sees every element once
+        List<Object> all = new ArrayList<>();
+        redisService.forEachListWindow(key, 10, all::addAll);
+        assertThat(all).hasSize(25);
+
+        // Clean up
+        redisService.deleteKey(key);
+    }
+
+    @Test
+    void testHashScan() {
+        String key = "test:hash:scan:key";
+        redisService.deleteKey(key);
+        for (int i = 0; i < 300; i++) {
+            redisService.putHash(key, "field" + i, "value" + i);
+        }
+
+        // Test following the cursor until it finishes
+        Map<Object, Object> scanned = new HashMap<>();
+        String cursor = "0";
+        do {
+            PageResult<Map<Object, Object>> page = redisService.scanHash(key, cursor, 50);
+            scanned.putAll(page.content());
+            cursor = page.next();
+        } while (cursor != null);
+        assertThat(scanned).hasSize(300).containsEntry("field7", "value7");
+
+        // Test streaming iteration
+        Map<Object, Object> streamed = new HashMap<>();
+        redisService.forEachHashEntry(key, 50, streamed::put);
+        assertThat(streamed).isEqualTo(scanned);
+
+        // Clean up
+        redisService.deleteKey(key);
+    }
 }
\ No newline at end of file